@@ -0,0 +1,22 @@
+package benchmarks;
+
+/**
+ *      Configurações comuns a todos os benchmarks, usadas nas anotações de cada classe para que os resultados de
+ *  execuções diferentes possam ser comparados.
+ */
+final class BenchmarkConfig {
+    static final int FORKS = 2;
+    static final int WARMUP_ITERATIONS = 5;
+    static final int MEASUREMENT_ITERATIONS = 5;
+    static final int ITERATION_SECONDS = 1;
+    static final long SEED = 42; // Semente fixa dos dados de entrada
+
+    // Heap fixo para que o GC se comporte igual entre execuções
+    static final String HEAP_MIN = "-Xms512m";
+    static final String HEAP_MAX = "-Xmx512m";
+    // O JavaFX é usado apenas para criar imagens, sem janela e com o pipeline de software
+    static final String PRISM_SOFTWARE = "-Dprism.order=sw";
+
+    private BenchmarkConfig() { // Sem instânciação
+    }
+}
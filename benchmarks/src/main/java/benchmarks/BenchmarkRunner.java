@@ -0,0 +1,33 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *      Executa os benchmarks com o profiler de alocação (gc) ligado e salva o relatório em json, para que duas
+ *  execuções possam ser comparadas. Forks, aquecimento e medição são fixados em cada classe de benchmark (BenchmarkConfig),
+ *  assim toda execução usa as mesmas configurações.
+ *
+ *  Uso: java -jar benchmarks/target/benchmarks.jar [regex dos benchmarks] [arquivo do relatório]
+ *  Ex: java -jar benchmarks/target/benchmarks.jar Json target/json.json
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() { // Sem instânciação
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "benchmarks\\..*Benchmark";
+        String report = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(report)
+                .build();
+        new Runner(options).run();
+    }
+}
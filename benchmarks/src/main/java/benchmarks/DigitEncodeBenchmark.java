@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.LedGlyphs;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *      Conversão do número exibido nas máscaras de segmentos, feita pelo LedDisplay.displayNumber() antes de chamar o
+ *  LedRenderer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = BenchmarkConfig.FORKS, jvmArgsAppend = {BenchmarkConfig.HEAP_MIN, BenchmarkConfig.HEAP_MAX})
+@Warmup(iterations = BenchmarkConfig.WARMUP_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+@Measurement(iterations = BenchmarkConfig.MEASUREMENT_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+public class DigitEncodeBenchmark {
+    @Param({"300", "1000000000"})
+    private int max; // Maior número sorteado, 300 é o intervalo da prova
+
+    private final int[] numbers = new int[1024];
+    private final byte[] masks = new byte[11];
+    private int next;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(BenchmarkConfig.SEED);
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(1, max + 1);
+        }
+    }
+
+    @Benchmark
+    public byte encodeNumber() {
+        next = (next + 1) & (numbers.length - 1);
+        int count = LedGlyphs.encode(numbers[next], masks);
+        return masks[count - 1];
+    }
+
+    @Benchmark
+    public byte encodeText() {
+        LedGlyphs.encode("Err", masks);
+        return masks[2];
+    }
+}
@@ -0,0 +1,26 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ui.GuessInput;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *      Validação do palpite feita a cada mudança da caixa de texto pelo filtro do GuessInput, para textos válidos,
+ *  prefixos de um palpite, fora do intervalo e que não são números.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = BenchmarkConfig.FORKS, jvmArgsAppend = {BenchmarkConfig.HEAP_MIN, BenchmarkConfig.HEAP_MAX})
+@Warmup(iterations = BenchmarkConfig.WARMUP_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+@Measurement(iterations = BenchmarkConfig.MEASUREMENT_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+public class GuessValidationBenchmark {
+    @Param({"150", "3000", "12a", "abc", "", "0"})
+    private String input;
+
+    @Benchmark
+    public long parse() {
+        return GuessInput.parse(input);
+    }
+}
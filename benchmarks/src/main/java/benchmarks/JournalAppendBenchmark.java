@@ -0,0 +1,48 @@
+package benchmarks;
+
+import journal.RoundJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ *      Custo de gravar um palpite no RoundJournal, pago pela thread que chama o GameEngine.guess() (a do JavaFX no jogo
+ *  local). Os segmentos pequenos fazem a troca de segmento acontecer durante a medição.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = BenchmarkConfig.FORKS, jvmArgsAppend = {BenchmarkConfig.HEAP_MIN, BenchmarkConfig.HEAP_MAX})
+@Warmup(iterations = BenchmarkConfig.WARMUP_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+@Measurement(iterations = BenchmarkConfig.MEASUREMENT_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+public class JournalAppendBenchmark {
+    private Path directory;
+    private RoundJournal journal;
+    private int guess;
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("guess-journal");
+        journal = new RoundJournal(directory, 4 << 20, 100);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void guessed() {
+        journal.guessed(1, 1, 150, guess++ & 255, 1);
+    }
+}
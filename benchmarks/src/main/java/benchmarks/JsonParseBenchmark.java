@@ -0,0 +1,73 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.JsonValueParser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *      Leitura do número na resposta do servidor pelo JsonValueParser: o json inteiro de uma vez, com um parser
+ *  reutilizado, e em pedaços de ByteBuffers diretos, como o HttpClient entrega o corpo para o NumberSubscriber.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = BenchmarkConfig.FORKS, jvmArgsAppend = {BenchmarkConfig.HEAP_MIN, BenchmarkConfig.HEAP_MAX})
+@Warmup(iterations = BenchmarkConfig.WARMUP_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+@Measurement(iterations = BenchmarkConfig.MEASUREMENT_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+public class JsonParseBenchmark {
+    /**
+     *  compact: resposta do servidor da prova; padded: campos extras, espaços e a chave no meio do objeto.
+     */
+    @Param({"compact", "padded"})
+    private String shape;
+
+    @Param({"1", "4"})
+    private int chunks; // Quantidade de ByteBuffers em que o corpo chega
+
+    private byte[] body;
+    private ByteBuffer[] buffers;
+    private final JsonValueParser parser = new JsonValueParser();
+
+    @Setup
+    public void setup() {
+        String json = "compact".equals(shape) ? "{\"value\":187}"
+                : "{ \"min\" : 1, \"note\" : \"value\", \"value\" : 187, \"max\" : 300, \"source\" : \"rand\" }";
+        body = json.getBytes(StandardCharsets.US_ASCII);
+        buffers = new ByteBuffer[chunks];
+        int size = (body.length + chunks - 1) / chunks;
+        for (int i = 0; i < chunks; i++) {
+            int start = Math.min(body.length, i * size);
+            int end = Math.min(body.length, start + size);
+            buffers[i] = ByteBuffer.allocateDirect(end - start);
+            buffers[i].put(body, start, end - start).flip();
+        }
+    }
+
+    @Benchmark
+    public int parseArray() {
+        return JsonValueParser.parse(body, 0, body.length);
+    }
+
+    @Benchmark
+    public int parseReused() {
+        parser.reset();
+        parser.feed(body, 0, body.length);
+        return parser.finish();
+    }
+
+    /**
+     *      Caminho de leitura da resposta: os pedaços são entregues um a um ao mesmo parser.
+     */
+    @Benchmark
+    public int parseBuffers() {
+        parser.reset();
+        for (ByteBuffer buffer : buffers) {
+            parser.feed(buffer);
+            buffer.rewind(); // feed() avança a posição até o fim
+        }
+        return parser.finish();
+    }
+}
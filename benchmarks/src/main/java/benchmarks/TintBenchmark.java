@@ -0,0 +1,62 @@
+package benchmarks;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.*;
+import utils.SegmentTinter;
+import utils.TintCache;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *      Pintura dos segmentos feita pelo LedDisplay.changeColor(): a pintura pelo SegmentTinter em vários tamanhos de
+ *  imagem (o segmento original tem 54x23) e a busca de uma cor já pintada no TintCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = BenchmarkConfig.FORKS,
+        jvmArgsAppend = {BenchmarkConfig.HEAP_MIN, BenchmarkConfig.HEAP_MAX, BenchmarkConfig.PRISM_SOFTWARE})
+@Warmup(iterations = BenchmarkConfig.WARMUP_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+@Measurement(iterations = BenchmarkConfig.MEASUREMENT_ITERATIONS, time = BenchmarkConfig.ITERATION_SECONDS)
+public class TintBenchmark {
+    @Param({"54", "256", "1024"})
+    private int width; // A altura mantém a proporção do segmento original
+
+    private Image source;
+    private TintCache cache;
+    private final Color[] colors = {Color.rgb(229, 32, 98), Color.DODGERBLUE, Color.LIMEGREEN, Color.GOLD};
+    private int next;
+
+    @Setup
+    public void setup() {
+        int height = Math.max(1, width * 23 / 54);
+        int[] pixels = new int[width * height];
+        SplittableRandom random = new SplittableRandom(BenchmarkConfig.SEED);
+        for (int i = 0; i < pixels.length; i++) { // Cerca de um terço dos pixels é transparente, como no segmento
+            pixels[i] = random.nextInt(3) == 0 ? 0 : 0xFF000000 | random.nextInt(0x1000000);
+        }
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        source = image;
+        cache = new TintCache(source, colors.length);
+        for (Color color : colors) {
+            cache.get(color);
+        }
+    }
+
+    @Benchmark
+    public Image tint() {
+        next = (next + 1) % colors.length;
+        return SegmentTinter.tint(source, colors[next]);
+    }
+
+    @Benchmark
+    public Image cacheHit() {
+        next = (next + 1) % colors.length;
+        return cache.get(colors[next]);
+    }
+}
@@ -0,0 +1,181 @@
+package game;
+
+import metrics.LatencyHistogram;
+import utils.GameConfig;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ *      Jogador automático. Joga partidas seguidas em um GameClient usando as respostas "É maior" e "É menor" para
+ *  diminuir o intervalo onde o número pode estar, e escolhe cada palpite dentro desse intervalo pela Strategy.
+ *
+ *  As respostas podem chegar na hora (LocalGameClient) ou depois (RemoteGameClient). Respostas prontas são tratadas em
+ *  um laço, sem empilhar chamadas, e ao fim de cada partida o jogador volta para o Executor, para que vários jogadores
+ *  dividam as mesmas threads.
+ *
+ *  Cada palpite pode ser entregue a um Observer antes do próximo (ex: a UI, que mostra o palpite no LedDisplay).
+ */
+public final class AutoPlayer {
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    /**
+     *      Forma de escolher o palpite dentro do intervalo [low, high] ainda possível.
+     */
+    public enum Strategy {
+        BINARY, // Meio do intervalo, no máximo log2(tamanho) + 1 palpites
+        RANDOM, // Qualquer número do intervalo, como um jogador sem estratégia
+        MIXED; // Meio do intervalo em 3 de cada 4 palpites, e um número qualquer nos demais
+
+        /**
+         * @param low Menor número possível.
+         * @param high Maior número possível.
+         * @param random Gerador do jogador.
+         * @return Palpite entre low e high.
+         */
+        int pick(int low, int high, SplittableRandom random) {
+            switch (this) {
+                case RANDOM:
+                    return randomIn(low, high, random);
+                case MIXED:
+                    return random.nextInt(4) == 0 ? randomIn(low, high, random) : middle(low, high);
+                default:
+                    return middle(low, high);
+            }
+        }
+
+        private static int middle(int low, int high) {
+            return (int) (((long) low + high) >> 1); // Sem estouro para intervalos grandes
+        }
+
+        private static int randomIn(int low, int high, SplittableRandom random) {
+            return (int) (low + random.nextLong((long) high - low + 1));
+        }
+    }
+
+    /**
+     *      Recebe cada palpite e o seu resultado. O jogador só continua quando o Future retornado completar.
+     */
+    public interface Observer {
+        Observer NONE = (guess, result) -> DONE;
+
+        CompletableFuture<Void> onGuess(int guess, GuessResult result);
+    }
+
+    private final GameClient client;
+    private final Strategy strategy;
+    private final SplittableRandom random;
+    private final Observer observer;
+    private final LatencyHistogram rounds; // Tempo de cada partida, do pedido ao acerto (us)
+    private final LatencyHistogram guesses; // Tempo de resposta de cada palpite (us)
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+    private volatile boolean running;
+
+    // Estado da partida, alterado por um único passo de cada vez
+    private boolean inRound;
+    private int low, high, roundGuesses;
+    private long roundStart;
+
+    /**
+     * @param client Jogo deste jogador, que não deve ser usado por outro jogador.
+     * @param strategy Forma de escolher os palpites.
+     * @param seed Semente do gerador, para repetir as mesmas escolhas.
+     * @param observer Recebe cada palpite, ou Observer.NONE.
+     * @param rounds Histograma do tempo das partidas.
+     * @param guesses Histograma do tempo de resposta dos palpites.
+     */
+    public AutoPlayer(GameClient client, Strategy strategy, long seed, Observer observer, LatencyHistogram rounds,
+                      LatencyHistogram guesses) {
+        this.client = client;
+        this.strategy = strategy;
+        this.random = new SplittableRandom(seed);
+        this.observer = observer;
+        this.rounds = rounds;
+        this.guesses = guesses;
+    }
+
+    /**
+     *      Começa a jogar no executor até o stop().
+     * @param executor Executor onde o jogador roda entre as partidas.
+     * @return Future completado quando o jogador parar, ou com o erro que o fez parar.
+     */
+    public CompletableFuture<Void> start(Executor executor) {
+        running = true;
+        executor.execute(() -> play(executor));
+        return finished;
+    }
+
+    /**
+     *      Pede para o jogador parar. A partida ou o palpite em andamento é abandonado.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     *      Executa passos (nova partida ou palpite) enquanto as respostas chegam prontas. Uma resposta que ainda não
+     *  chegou continua o laço na thread que a completar.
+     */
+    private void play(Executor executor) {
+        while (running) {
+            CompletableFuture<Void> step = inRound ? guess() : newRound();
+            if (!step.isDone() || step.isCompletedExceptionally()) {
+                step.whenComplete((ignored, error) -> {
+                    if (check(error)) play(executor);
+                });
+                return;
+            }
+            if (!inRound) { // Fim da partida, as outras tarefas do executor têm a sua vez
+                executor.execute(() -> play(executor));
+                return;
+            }
+        }
+        finished.complete(null);
+    }
+
+    private boolean check(Throwable error) {
+        if (error == null) {
+            return true;
+        }
+        running = false;
+        finished.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error);
+        return false;
+    }
+
+    private CompletableFuture<Void> newRound() {
+        roundStart = System.nanoTime();
+        return client.newRound().thenRun(() -> {
+            low = GameConfig.getMin();
+            high = GameConfig.getMax();
+            roundGuesses = 0;
+            inRound = true;
+        });
+    }
+
+    private CompletableFuture<Void> guess() {
+        int guess = strategy.pick(low, high, random);
+        long start = System.nanoTime();
+        return client.guess(guess).thenCompose(result -> {
+            guesses.recordSince(start);
+            roundGuesses++;
+            switch (result) {
+                case CORRECT:
+                    rounds.recordSince(roundStart);
+                    inRound = false;
+                    break;
+                case LOWER:
+                    high = guess - 1;
+                    break;
+                default:
+                    low = guess + 1;
+            }
+            if (inRound && low > high) { // O número não está no intervalo do GameConfig
+                throw new IllegalStateException("Respostas inconsistentes depois de " + roundGuesses + " palpites");
+            }
+            return observer.onGuess(guess, result);
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package game;
+
+import utils.HttpNumberException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *      Um jogo visto pelo lado do jogador. A interface JavaFX usa um GameClient para jogar sem saber se as regras rodam
+ *  no mesmo processo (LocalGameClient) ou em um GuessServer remoto (net.RemoteGameClient).
+ */
+public interface GameClient {
+    /**
+     *      Encerra a partida atual e começa uma nova.
+     * @return Future completado quando a nova partida começar, com a falha do servidor de números caso o número tenha
+     *  vindo da fonte reserva (null caso contrário), ou completado com uma HttpNumberException caso o número não
+     *  possa ser obtido.
+     */
+    CompletableFuture<HttpNumberException> newRound();
+
+    /**
+     *      Envia um palpite para a partida atual.
+     * @param number Palpite do jogador.
+     * @return Future completado com o resultado do palpite.
+     */
+    CompletableFuture<GuessResult> guess(int number);
+}
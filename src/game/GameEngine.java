@@ -0,0 +1,263 @@
+package game;
+
+import journal.RoundJournal;
+import metrics.Metrics;
+import stats.GameStats;
+import utils.HttpNumberException;
+import utils.NumberSource;
+import utils.TaskScheduler;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *      Regras do jogo sem nenhuma dependência do JavaFX. O motor guarda vários jogos (GameSession) ao mesmo tempo em
+ *  um SessionRegistry dividido em faixas, então um único processo pode atender muitos jogadores. A interface JavaFX
+ *  (Controller) é apenas um dos clientes do motor, e usa um único jogo.
+ *
+ *  Os números das partidas vêm de uma NumberSource assíncrona (por padrão o HttpNumber). Jogos sem acesso por um
+ *  tempo são removidos automaticamente depois do startIdleEviction(), chamado pelo Main e pelo GuessServer com o
+ *  limite da propriedade guess.session.idleSeconds (startIdleEvictionFromConfig()). O jogo da interface JavaFX é
+ *  criado com createSession(true) e nunca é removido.
+ *
+ *  Com um RoundJournal, o início de cada partida e cada palpite são registrados, e podem ser jogados de novo pelo
+ *  JournalReplay. Com um GameStats, as partidas ganhas e abandonadas atualizam as estatísticas. Um Listener recebe
+ *  os palpites de todos os jogos (ex: o LedWall).
+ */
+public final class GameEngine {
+    /**
+     *      Recebe cada palpite verificado pelo motor, na thread que chamou o guess(). Deve ser rápido e não pode
+     *  bloquear, pois atrasa a resposta do palpite.
+     */
+    public interface Listener {
+        Listener NONE = (sessionId, guess, result) -> { };
+
+        void onGuess(long sessionId, int guess, GuessResult result);
+    }
+
+    private final NumberSource numberSource; // Fonte dos números das partidas
+    private final RoundJournal journal; // Registro das partidas, null caso desligado
+    private final GameStats stats; // Estatísticas das partidas, null caso desligadas
+    private final SessionRegistry sessions = new SessionRegistry();
+    private static final long IDLE_SECONDS = Long.getLong("guess.session.idleSeconds", 1800); // 0 desliga
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong evictedSessions = new AtomicLong();
+    private volatile Listener listener = Listener.NONE;
+    private ScheduledFuture<?> evictionTask;
+
+    /**
+     * @param numberSource Fonte dos números das partidas, cada chamada deve retornar um novo número.
+     */
+    public GameEngine(NumberSource numberSource) {
+        this(numberSource, null);
+    }
+
+    /**
+     * @param numberSource Fonte dos números das partidas, cada chamada deve retornar um novo número.
+     * @param journal Registro das partidas e palpites, ou null.
+     */
+    public GameEngine(NumberSource numberSource, RoundJournal journal) {
+        this(numberSource, journal, null);
+    }
+
+    /**
+     * @param numberSource Fonte dos números das partidas, cada chamada deve retornar um novo número.
+     * @param journal Registro das partidas e palpites, ou null.
+     * @param stats Estatísticas das partidas, ou null.
+     */
+    public GameEngine(NumberSource numberSource, RoundJournal journal, GameStats stats) {
+        this.numberSource = numberSource;
+        this.journal = journal;
+        this.stats = stats;
+    }
+
+    /**
+     *      Cria e registra um novo jogo, ainda sem partida.
+     * @return Jogo criado.
+     */
+    public GameSession createSession() {
+        return createSession(false);
+    }
+
+    /**
+     *      Cria e registra um novo jogo, ainda sem partida.
+     * @param pinned true para um jogo que nunca é removido por inatividade, como o da interface JavaFX, que pode
+     *  ficar parada o tempo que o jogador quiser.
+     * @return Jogo criado.
+     */
+    public GameSession createSession(boolean pinned) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), pinned);
+        sessions.put(session);
+        return session;
+    }
+
+    /**
+     * @param id Id do jogo.
+     * @return Jogo com o id, ou null caso ele não exista (ou tenha sido removido por inatividade).
+     */
+    public GameSession getSession(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     *      Remove o jogo do motor.
+     * @param id Id do jogo.
+     */
+    public void removeSession(long id) {
+        sessions.remove(id);
+    }
+
+    /**
+     *      Encerra a partida atual e pede o número da próxima.
+     * @param id Id do jogo.
+     * @return Future completado com o jogo quando a nova partida começar, ou com o erro da fonte de números. Caso o
+     *  número tenha vindo da fonte reserva, a falha fica em GameSession.getDegradedCause().
+     */
+    public CompletableFuture<GameSession> newRound(long id) {
+        GameSession session = require(id);
+        if (stats != null && session.isPlaying() && session.getGuesses() > 0) { // Partida deixada sem acerto
+            stats.roundAbandoned(id);
+        }
+        session.waitForNumber();
+        CompletableFuture<Integer> number = numberSource.next();
+        return number.thenApply(answer -> startRound(session, answer, NumberSource.degradedCause(number)));
+    }
+
+    /**
+     *      Encerra a partida atual e começa uma nova com um número conhecido, sem usar a NumberSource. Usado pelo
+     *  JournalReplay para jogar de novo as partidas registradas.
+     * @param id Id do jogo.
+     * @param answer Número da nova partida.
+     * @return Jogo com a nova partida.
+     */
+    public GameSession startRound(long id, int answer) {
+        return startRound(require(id), answer, null);
+    }
+
+    private GameSession startRound(GameSession session, int answer, HttpNumberException degradedCause) {
+        session.startRound(answer, degradedCause);
+        if (journal != null) {
+            journal.roundStarted(session.getId(), session.getRound(), answer);
+        }
+        return session;
+    }
+
+    /**
+     *      Verifica o palpite na partida atual do jogo.
+     * @param id Id do jogo.
+     * @param number Palpite do jogador.
+     * @return Resultado do palpite.
+     * @throws IllegalStateException Caso não haja partida em andamento.
+     */
+    public GuessResult guess(long id, int number) {
+        GameSession session = require(id);
+        GuessResult result = session.guess(number);
+        if (journal != null) {
+            journal.guessed(id, session.getRound(), session.getAnswer(), number, result.ordinal());
+        }
+        listener.onGuess(id, number, result);
+        if (result == GuessResult.CORRECT) { // Fim da partida
+            Metrics.ROUND_GUESSES.record(session.getGuesses());
+            if (stats != null) {
+                stats.roundWon(id, session.getGuesses(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - session.getRoundStart()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id Id do jogo.
+     * @return Resultado do último palpite, ou null caso nenhum palpite tenha sido dado na partida atual.
+     */
+    public GuessResult getResult(long id) {
+        return require(id).getLastResult();
+    }
+
+    /**
+     *      Volta o jogo ao estado inicial, sem partidas.
+     * @param id Id do jogo.
+     */
+    public void reset(long id) {
+        require(id).reset();
+    }
+
+    /**
+     *      Remove os jogos sem acesso há mais tempo que o limite.
+     * @param maxIdle Tempo máximo sem acesso.
+     * @param unit Unidade do tempo.
+     * @return Quantidade de jogos removidos.
+     */
+    public int evictIdle(long maxIdle, TimeUnit unit) {
+        int evicted = sessions.evictIdle(System.nanoTime() - unit.toNanos(maxIdle));
+        evictedSessions.addAndGet(evicted);
+        return evicted;
+    }
+
+    /**
+     *      Passa a remover periodicamente os jogos sem acesso há mais tempo que o limite. A verificação acontece a cada
+     *  metade do limite na thread do temporizador do TaskScheduler.
+     * @param maxIdle Tempo máximo sem acesso.
+     * @param unit Unidade do tempo.
+     */
+    public synchronized void startIdleEviction(long maxIdle, TimeUnit unit) {
+        stopIdleEviction();
+        long period = Math.max(1, unit.toMillis(maxIdle) / 2);
+        evictionTask = TaskScheduler.scheduleAtFixedRate(() -> evictIdle(maxIdle, unit), period,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     *      Passa a remover os jogos sem acesso há mais tempo que a propriedade guess.session.idleSeconds (1800). Não faz
+     *  nada caso a propriedade seja 0 ou negativa.
+     */
+    public void startIdleEvictionFromConfig() {
+        if (IDLE_SECONDS > 0) {
+            startIdleEviction(IDLE_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     *      Para a remoção periódica de jogos inativos.
+     */
+    public synchronized void stopIdleEviction() {
+        if (evictionTask != null) {
+            evictionTask.cancel(false);
+            evictionTask = null;
+        }
+    }
+
+    /**
+     *      Troca o Listener que recebe os palpites.
+     * @param listener Novo Listener, ou Listener.NONE.
+     */
+    public void setListener(Listener listener) {
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * @return Quantidade de jogos registrados.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * @return Quantidade de jogos removidos por inatividade desde a criação do motor.
+     */
+    public long getEvictedSessions() {
+        return evictedSessions.get();
+    }
+
+    private GameSession require(long id) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Jogo inexistente: " + id);
+        }
+        return session;
+    }
+}
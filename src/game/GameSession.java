@@ -0,0 +1,131 @@
+package game;
+
+import utils.HttpNumberException;
+
+/**
+ *      Estado de um único jogo: o número da partida atual, quantos palpites foram dados, em qual partida o jogador está
+ *  e qual foi o último resultado. Não depende do JavaFX, e os métodos são sincronizados para que um mesmo jogo possa
+ *  ser acessado por threads diferentes (por exemplo a thread do JavaFX e a thread que recebe o número).
+ *
+ *  O ciclo de uma partida é: waitForNumber() -> startRound(answer, ...) -> guess(number) até o resultado ser CORRECT.
+ */
+public final class GameSession {
+    private final long id;
+    private int answer; // Número da partida atual
+    private boolean hasAnswer; // Indica se o número da partida atual já foi recebido
+    private int guesses; // Palpites dados na partida atual
+    private int round; // Quantidade de partidas iniciadas
+    private GuessResult lastResult; // Resultado do último palpite, null caso nenhum palpite tenha sido dado
+    private long roundStart; // Momento em que a partida atual começou (System.nanoTime())
+    private HttpNumberException degradedCause; // Falha que levou o número da partida atual à fonte reserva
+    private volatile long lastActivity = System.nanoTime(); // Momento do último acesso, usado na remoção por inatividade
+    private final boolean pinned; // Nunca removido por inatividade
+
+    GameSession(long id, boolean pinned) {
+        this.id = id;
+        this.pinned = pinned;
+    }
+
+    /**
+     *      Encerra a partida atual enquanto o número da próxima não chega.
+     */
+    synchronized void waitForNumber() {
+        this.hasAnswer = false;
+        this.lastResult = null;
+        touch();
+    }
+
+    /**
+     *      Começa uma nova partida.
+     * @param answer Número da nova partida.
+     * @param degradedCause Falha que levou o número à fonte reserva, ou null caso ele tenha vindo da fonte principal.
+     */
+    synchronized void startRound(int answer, HttpNumberException degradedCause) {
+        this.answer = answer;
+        this.degradedCause = degradedCause;
+        this.hasAnswer = true;
+        this.guesses = 0;
+        this.lastResult = null;
+        this.round++;
+        touch();
+        this.roundStart = lastActivity;
+    }
+
+    /**
+     *      Verifica se o palpite é maior, menor ou igual ao número da partida.
+     * @param number Palpite do jogador.
+     * @return Resultado do palpite.
+     * @throws IllegalStateException Caso o número ainda não tenha sido recebido ou a partida já tenha acabado.
+     */
+    synchronized GuessResult guess(int number) {
+        if (!isPlaying()) {
+            throw new IllegalStateException("Nenhuma partida em andamento");
+        }
+        touch();
+        this.guesses++;
+        this.lastResult = GuessResult.of(number, answer);
+        return lastResult;
+    }
+
+    /**
+     *      Volta o jogo ao estado inicial, sem partidas.
+     */
+    synchronized void reset() {
+        this.hasAnswer = false;
+        this.guesses = 0;
+        this.round = 0;
+        this.lastResult = null;
+        touch();
+    }
+
+    private void touch() {
+        this.lastActivity = System.nanoTime();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return Indica se há uma partida esperando palpites.
+     */
+    public synchronized boolean isPlaying() {
+        return hasAnswer && lastResult != GuessResult.CORRECT;
+    }
+
+    public synchronized int getGuesses() {
+        return guesses;
+    }
+
+    public synchronized int getRound() {
+        return round;
+    }
+
+    synchronized long getRoundStart() {
+        return roundStart;
+    }
+
+    synchronized int getAnswer() {
+        return answer;
+    }
+
+    public synchronized GuessResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * @return Falha que levou o número da partida atual à fonte reserva, ou null caso ele tenha vindo da fonte
+     *  principal.
+     */
+    public synchronized HttpNumberException getDegradedCause() {
+        return degradedCause;
+    }
+
+    long getLastActivity() {
+        return lastActivity;
+    }
+
+    boolean isPinned() {
+        return pinned;
+    }
+}
@@ -0,0 +1,36 @@
+package game;
+
+/**
+ *      Resultado de um palpite, com a mensagem que é exibida ao jogador.
+ */
+public enum GuessResult {
+    CORRECT("Acertou!"), // Palpite igual ao número
+    LOWER("É menor"), // O número é menor que o palpite
+    HIGHER("É maior"); // O número é maior que o palpite
+
+    private final String message;
+
+    GuessResult(String message) {
+        this.message = message;
+    }
+
+    /**
+     *      Compara o palpite com o número da partida.
+     * @param guess Palpite do jogador.
+     * @param answer Número da partida.
+     * @return Resultado do palpite.
+     */
+    public static GuessResult of(int guess, int answer) {
+        if (guess == answer) {
+            return CORRECT;
+        }
+        return guess > answer ? LOWER : HIGHER;
+    }
+
+    /**
+     * @return Mensagem exibida ao jogador.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
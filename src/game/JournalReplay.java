@@ -0,0 +1,202 @@
+package game;
+
+import journal.RoundJournal;
+import journal.RoundJournalReader;
+import utils.Log;
+import utils.RandomNumberSource;
+import utils.TaskScheduler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *      Joga de novo, em um GameEngine, as partidas gravadas por um RoundJournal: cada jogo gravado vira um novo jogo
+ *  no motor, que recebe os mesmos números secretos e os mesmos palpites. Os resultados são comparados com os gravados
+ *  e a vazão é medida, então o registro das partidas reais serve como carga de teste para as regras do jogo.
+ *
+ *  Os ids de jogo recomeçam em cada execução da aplicação, então um jogo gravado termina quando o mesmo id começa
+ *  uma partida com contador de partidas (getRound()) menor ou igual ao da anterior.
+ *
+ *      Uso: JournalReplay <diretório> [threads (processadores)] [repetições (1)]
+ */
+public final class JournalReplay {
+    private static final byte ROUND = 0; // Tipo do evento de início de partida, os demais são ordinal + 1
+
+    private final List<RecordedSession> sessions;
+
+    private JournalReplay(List<RecordedSession> sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     *      Lê todos os registros do diretório e os separa por jogo.
+     * @param directory Diretório do RoundJournal.
+     * @return Replay com os jogos lidos.
+     * @throws IOException Caso o registro não possa ser lido.
+     */
+    public static JournalReplay load(Path directory) throws IOException {
+        List<RecordedSession> sessions = new ArrayList<>();
+        Map<Long, RecordedSession> active = new HashMap<>(); // Último jogo gravado de cada id
+        try (RoundJournalReader reader = new RoundJournalReader(directory)) {
+            while (reader.next()) {
+                RecordedSession session = active.get(reader.getSession());
+                if (reader.getType() == RoundJournal.ROUND_START) {
+                    if (session == null || reader.getRound() <= session.lastRound) { // Nova execução da aplicação
+                        session = new RecordedSession();
+                        sessions.add(session);
+                        active.put(reader.getSession(), session);
+                    }
+                    session.lastRound = reader.getRound();
+                    session.add(ROUND, reader.getSecret());
+                } else if (session != null) { // Palpites de uma partida sem início gravado são ignorados
+                    session.add((byte) (reader.getResult() + 1), reader.getGuess());
+                }
+            }
+        }
+        return new JournalReplay(sessions);
+    }
+
+    /**
+     *      Joga todos os jogos gravados, divididos entre as threads.
+     * @param engine Motor que recebe os jogos.
+     * @param threads Quantidade de threads.
+     * @param repeat Quantas vezes cada jogo gravado é jogado.
+     * @return Resultado do replay.
+     */
+    public Report run(GameEngine engine, int threads, int repeat) {
+        LongAdder rounds = new LongAdder(), guesses = new LongAdder(), mismatches = new LongAdder();
+        AtomicInteger counter = new AtomicInteger(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "guess-replay-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> parts = new ArrayList<>();
+            for (int part = 0; part < threads; part++) {
+                int first = part;
+                parts.add(CompletableFuture.runAsync(() -> {
+                    for (int r = 0; r < repeat; r++) {
+                        for (int i = first; i < sessions.size(); i += threads) {
+                            sessions.get(i).replay(engine, rounds, guesses, mismatches);
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+        return new Report(sessions.size(), System.nanoTime() - start, rounds.sum(), guesses.sum(), mismatches.sum());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Uso: JournalReplay <diretório> [threads] [repetições]");
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int repeat = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        JournalReplay replay = load(Paths.get(args[0]));
+        // Os números vêm do registro, a NumberSource não é usada
+        GameEngine engine = new GameEngine(new RandomNumberSource(false));
+        try {
+            replay.run(engine, Math.max(1, threads), Math.max(1, repeat)).log();
+        } finally {
+            TaskScheduler.shutdown();
+        }
+    }
+
+    /**
+     *      Eventos de um jogo gravado em arrays primitivos: o tipo (ROUND ou ordinal do resultado + 1) e o valor
+     *  (número secreto ou palpite).
+     */
+    private static final class RecordedSession {
+        private byte[] types = new byte[16];
+        private int[] values = new int[16];
+        private int size;
+        private int lastRound;
+
+        void add(byte type, int value) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            types[size] = type;
+            values[size++] = value;
+        }
+
+        void replay(GameEngine engine, LongAdder rounds, LongAdder guesses, LongAdder mismatches) {
+            GuessResult[] results = GuessResult.values();
+            long id = engine.createSession().getId();
+            try {
+                boolean playing = false;
+                for (int i = 0; i < size; i++) {
+                    if (types[i] == ROUND) {
+                        engine.startRound(id, values[i]);
+                        rounds.increment();
+                        playing = true;
+                    } else if (playing) {
+                        GuessResult result = engine.guess(id, values[i]);
+                        guesses.increment();
+                        if (result != results[types[i] - 1]) {
+                            mismatches.increment();
+                        }
+                        playing = result != GuessResult.CORRECT;
+                    }
+                }
+            } finally {
+                engine.removeSession(id);
+            }
+        }
+    }
+
+    /**
+     *      Resultado de um replay.
+     */
+    public static final class Report {
+        private final int sessions;
+        private final long elapsedNanos, rounds, guesses, mismatches;
+
+        Report(int sessions, long elapsedNanos, long rounds, long guesses, long mismatches) {
+            this.sessions = sessions;
+            this.elapsedNanos = elapsedNanos;
+            this.rounds = rounds;
+            this.guesses = guesses;
+            this.mismatches = mismatches;
+        }
+
+        public long getGuesses() {
+            return guesses;
+        }
+
+        /**
+         * @return Palpites cujo resultado foi diferente do gravado.
+         */
+        public long getMismatches() {
+            return mismatches;
+        }
+
+        /**
+         *      Escreve o resultado no Log (evento replay.report).
+         */
+        public void log() {
+            double seconds = Math.max(1, elapsedNanos) / 1e9;
+            Log.info("replay.report", "sessions", sessions, "rounds", rounds, "guesses", guesses,
+                    "mismatches", mismatches, "seconds", String.format("%.3f", seconds),
+                    "roundsPerSecond", String.format("%.1f", rounds / seconds),
+                    "guessesPerSecond", String.format("%.1f", guesses / seconds));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package game;
+
+import metrics.LatencyHistogram;
+import utils.Log;
+import utils.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *      Gerador de carga: vários AutoPlayer jogando ao mesmo tempo, um por GameClient, medindo a vazão (partidas e
+ *  palpites por segundo) e as latências (partida e palpite, p50/p99).
+ *
+ *  Os jogadores rodam em um pool próprio (guess-load-N), para que a carga não dispute as filas limitadas do
+ *  TaskScheduler com a aplicação. Os primeiros segundos (aquecimento) não entram no Report.
+ */
+public final class LoadGenerator {
+    private final LatencyHistogram rounds = new LatencyHistogram("load.round", "us");
+    private final LatencyHistogram guesses = new LatencyHistogram("load.guess", "us");
+    private final List<AutoPlayer> players = new ArrayList<>();
+    private final ExecutorService executor;
+    private volatile long measureStart; // Início da medição, depois do aquecimento
+
+    /**
+     * @param clients Um jogo para cada jogador.
+     * @param strategy Estratégia de todos os jogadores.
+     * @param seed Semente do primeiro jogador, os demais usam as seguintes.
+     * @param observer Recebe os palpites de todos os jogadores, ou AutoPlayer.Observer.NONE.
+     */
+    public LoadGenerator(List<? extends GameClient> clients, AutoPlayer.Strategy strategy, long seed,
+                         AutoPlayer.Observer observer) {
+        for (GameClient client : clients) {
+            players.add(new AutoPlayer(client, strategy, seed++, observer, rounds, guesses));
+        }
+        AtomicInteger counter = new AtomicInteger(1);
+        int threads = Math.max(1, Math.min(clients.size(), Runtime.getRuntime().availableProcessors()));
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "guess-load-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     *      Joga durante o aquecimento e a medição, e para todos os jogadores no fim.
+     * @param warmup Tempo de aquecimento, descartado do Report.
+     * @param duration Tempo de medição. 0 joga até o stop().
+     * @param unit Unidade dos tempos.
+     * @return Future completado com o Report quando todos os jogadores pararem, ou com o erro do primeiro jogador
+     *  que falhar.
+     */
+    public CompletableFuture<Report> run(long warmup, long duration, TimeUnit unit) {
+        measureStart = System.nanoTime() + unit.toNanos(warmup);
+        List<CompletableFuture<Void>> finished = new ArrayList<>();
+        for (AutoPlayer player : players) {
+            finished.add(player.start(executor));
+        }
+        ScheduledFuture<?> warmupEnd = TaskScheduler.schedule(() -> {
+            rounds.reset();
+            guesses.reset();
+            measureStart = System.nanoTime();
+        }, warmup, unit);
+        ScheduledFuture<?> end = duration > 0 ? TaskScheduler.schedule(this::stop, warmup + duration, unit) : null;
+        CompletableFuture<Void> all = CompletableFuture.allOf(finished.toArray(new CompletableFuture<?>[0]));
+        all.whenComplete((ignored, error) -> {
+            stop(); // Um jogador falhou, os demais também param
+            warmupEnd.cancel(false);
+            if (end != null) end.cancel(false);
+            executor.shutdown();
+        });
+        return all.thenApply(ignored -> report());
+    }
+
+    /**
+     *      Para todos os jogadores. As respostas ainda pendentes são descartadas.
+     */
+    public void stop() {
+        for (AutoPlayer player : players) {
+            player.stop();
+        }
+    }
+
+    /**
+     * @return Resultados desde o fim do aquecimento até agora.
+     */
+    public Report report() {
+        return new Report(players.size(), Math.max(0, System.nanoTime() - measureStart), rounds, guesses);
+    }
+
+    /**
+     *      Resultado de uma medição.
+     */
+    public static final class Report {
+        private final int players;
+        private final long elapsedNanos;
+        private final long games, guesses;
+        private final long roundP50, roundP99, guessP50, guessP99, guessMax;
+
+        Report(int players, long elapsedNanos, LatencyHistogram rounds, LatencyHistogram guesses) {
+            this.players = players;
+            this.elapsedNanos = elapsedNanos;
+            this.games = rounds.getCount();
+            this.guesses = guesses.getCount();
+            this.roundP50 = rounds.getP50();
+            this.roundP99 = rounds.getP99();
+            this.guessP50 = guesses.getP50();
+            this.guessP99 = guesses.getP99();
+            this.guessMax = guesses.getMax();
+        }
+
+        public double getGamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+        }
+
+        public double getGuessesPerSecond() {
+            return elapsedNanos == 0 ? 0 : guesses * 1e9 / elapsedNanos;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getGuesses() {
+            return guesses;
+        }
+
+        /**
+         *      Escreve o resultado no Log (evento load.report), latências em microssegundos.
+         */
+        public void log() {
+            Log.info("load.report", "players", players, "seconds", String.format("%.1f", elapsedNanos / 1e9),
+                    "games", games, "guesses", guesses,
+                    "gamesPerSecond", String.format("%.1f", getGamesPerSecond()),
+                    "guessesPerSecond", String.format("%.1f", getGuessesPerSecond()),
+                    "guessesPerGame", games == 0 ? 0 : String.format("%.2f", (double) guesses / games),
+                    "roundP50", roundP50, "roundP99", roundP99, "guessP50", guessP50, "guessP99", guessP99,
+                    "guessMax", guessMax);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package game;
+
+import utils.HttpNumberException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *      GameClient que joga em um GameEngine do próprio processo, usando um único jogo criado no construtor. Caso o
+ *  jogo tenha sido removido por inatividade, a próxima partida é jogada em um novo jogo.
+ */
+public final class LocalGameClient implements GameClient {
+    private final GameEngine engine;
+    private final boolean pinned;
+    private volatile long sessionId;
+
+    public LocalGameClient(GameEngine engine) {
+        this(engine, false);
+    }
+
+    /**
+     * @param engine Motor onde o jogo é criado.
+     * @param pinned true para um jogo que nunca é removido por inatividade (ver GameEngine.createSession()).
+     */
+    public LocalGameClient(GameEngine engine, boolean pinned) {
+        this.engine = engine;
+        this.pinned = pinned;
+        this.sessionId = engine.createSession(pinned).getId();
+    }
+
+    /**
+     * @return Id do jogo no GameEngine.
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    @Override
+    public CompletableFuture<HttpNumberException> newRound() {
+        if (engine.getSession(sessionId) == null) { // Removido por inatividade
+            sessionId = engine.createSession(pinned).getId();
+        }
+        return engine.newRound(sessionId).thenApply(GameSession::getDegradedCause);
+    }
+
+    @Override
+    public CompletableFuture<GuessResult> guess(int number) {
+        try {
+            return CompletableFuture.completedFuture(engine.guess(sessionId, number));
+        } catch (IllegalStateException | IllegalArgumentException e) { // Sem partida ou jogo removido por inatividade
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
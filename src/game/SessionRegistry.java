@@ -0,0 +1,84 @@
+package game;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ *      Guarda os jogos ativos divididos em faixas (stripes), cada uma com o seu próprio HashMap e o seu próprio lock.
+ *  O id do jogo decide a faixa, então threads que acessam jogos diferentes quase nunca disputam o mesmo lock, e a
+ *  remoção por inatividade percorre uma faixa por vez sem travar o registro inteiro.
+ */
+final class SessionRegistry {
+    private static final int STRIPES = 64; // Potência de 2
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    SessionRegistry() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    void put(GameSession session) {
+        Stripe stripe = stripeFor(session.getId());
+        synchronized (stripe) {
+            stripe.sessions.put(session.getId(), session);
+        }
+    }
+
+    GameSession get(long id) {
+        Stripe stripe = stripeFor(id);
+        synchronized (stripe) {
+            return stripe.sessions.get(id);
+        }
+    }
+
+    GameSession remove(long id) {
+        Stripe stripe = stripeFor(id);
+        synchronized (stripe) {
+            return stripe.sessions.remove(id);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.sessions.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     *      Remove os jogos cujo último acesso aconteceu antes do limite.
+     * @param oldestActivity Momento (System.nanoTime()) a partir do qual o jogo é considerado ativo.
+     * @return Quantidade de jogos removidos.
+     */
+    int evictIdle(long oldestActivity) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<GameSession> iterator = stripe.sessions.values().iterator();
+                while (iterator.hasNext()) {
+                    GameSession session = iterator.next();
+                    if (!session.isPinned() && session.getLastActivity() - oldestActivity < 0) {
+                        iterator.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    private Stripe stripeFor(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L; // Espalha ids sequenciais entre as faixas
+        return stripes[(int) (hash >>> 58) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+        private final Map<Long, GameSession> sessions = new HashMap<>();
+    }
+}
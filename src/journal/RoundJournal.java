@@ -0,0 +1,407 @@
+package journal;
+
+import utils.Log;
+import utils.TaskScheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ *      Registro das partidas e palpites, somente com acréscimos, escrito em arquivos mapeados na memória
+ *  (MappedByteBuffer). Cada evento é um registro de RECORD_SIZE bytes, então escrever um palpite é apenas guardar
+ *  alguns campos na memória mapeada, sem chamadas ao sistema e sem alocação. O sistema operacional leva as páginas para
+ *  o disco, e um flush periódico (group commit) força o que foi escrito desde o último flush de uma só vez.
+ *
+ *  Formato de cada segmento (rounds-<índice>.log, com tamanho fixo):
+ *  - Cabeçalho de HEADER_SIZE bytes: MAGIC (long), VERSION (int), RECORD_SIZE (int), índice do segmento (long).
+ *  - Registros, todos little-endian:
+ *      0 timestamp (long, epoch em ms), 8 jogo (long), 16 partida (int), 20 número secreto (int), 24 palpite (int),
+ *      28 resultado (byte, ordinal do game.GuessResult), 29 tipo (byte, ROUND_START ou GUESS), 30-31 reservado.
+ *  O tipo é escrito por último: um registro com tipo 0 ainda não foi escrito (ou foi interrompido), e marca o fim do
+ *  segmento para o RoundJournalReader.
+ *
+ *  Quando um segmento enche a escrita passa para o próximo, que já foi criado e mapeado em segundo plano, para que a
+ *  troca não aconteça na thread que escreve (normalmente a do JavaFX). Caso ele ainda não esteja pronto, a escrita o
+ *  espera sem segurar o lock do registro. Ao abrir um diretório existente a escrita
+ *  continua depois do último registro.
+ *
+ *  Uma falha ao criar o próximo segmento (disco cheio, sem permissão) nunca chega a quem escreve: ela é registrada no
+ *  log uma vez, os registros seguintes são descartados e o flush periódico tenta criar o segmento de novo até
+ *  conseguir.
+ *
+ *  Ligado pela propriedade de sistema guess.journal (diretório), configurado por guess.journal.segmentMb (16, de 1 a
+ *  2047) e guess.journal.flushMillis (100, intervalo do group commit).
+ */
+public final class RoundJournal implements Closeable {
+    static final long MAGIC = 0x474F4C5353455547L; // "GUESSLOG" em little-endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 32;
+
+    // Posição dos campos dentro do registro
+    static final int TIMESTAMP_OFFSET = 0, SESSION_OFFSET = 8, ROUND_OFFSET = 16, SECRET_OFFSET = 20,
+            GUESS_OFFSET = 24, RESULT_OFFSET = 28, TYPE_OFFSET = 29;
+
+    public static final byte ROUND_START = 1; // Nova partida, com o número secreto
+    public static final byte GUESS = 2; // Palpite, com o resultado
+
+    private static final int MAX_SEGMENT_MB = Integer.MAX_VALUE >> 20; // Um MappedByteBuffer tem até 2 GB
+    private static final String PREFIX = "rounds-", SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ScheduledFuture<?> flushTask;
+    private final long historySegment; // Segmento e posição onde esta instância começou a escrever
+    private final int historyPosition;
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    // Protegidos pelo lock do objeto
+    private Segment current;
+    private CompletableFuture<Segment> spare; // Próximo segmento, criado em segundo plano
+    private final List<Segment> retired = new ArrayList<>(); // Segmentos cheios ainda sem flush
+    private long appended; // Registros escritos por esta instância
+    private long durable; // Registros já levados ao disco
+    private long dropped; // Registros descartados desde que o segmento reserva falhou
+    private boolean closed;
+
+    /**
+     * @param directory Diretório dos segmentos, criado caso não exista.
+     * @param segmentSize Tamanho de cada segmento em bytes.
+     * @param flushMillis Intervalo do group commit em milissegundos.
+     * @throws IOException Caso o diretório ou o segmento não possam ser abertos.
+     */
+    public RoundJournal(Path directory, int segmentSize, long flushMillis) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Segmento menor que um registro: " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        List<Path> segments = listSegments(directory);
+        Segment last = segments.isEmpty() ? null : Segment.open(segments.get(segments.size() - 1));
+        if (last == null || last.isFull()) {
+            long index = last == null ? 0 : last.index + 1;
+            if (last != null) last.close();
+            last = Segment.create(segmentPath(directory, index), index, segmentSize);
+        }
+        this.current = last;
+        this.historySegment = last.index;
+        this.historyPosition = last.position;
+        prepareSpare();
+        this.flushTask = TaskScheduler.scheduleAtFixedRate(this::scheduleFlush, Math.max(1, flushMillis),
+                TimeUnit.MILLISECONDS);
+        Log.info("journal.opened", "segment", current.path, "position", current.position);
+    }
+
+    /**
+     *      Abre o registro do diretório da propriedade guess.journal.
+     * @return Registro aberto, ou null caso a propriedade não esteja definida.
+     */
+    public static RoundJournal fromConfig() {
+        String directory = System.getProperty("guess.journal");
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        int segmentMb = Integer.getInteger("guess.journal.segmentMb", 16);
+        if (segmentMb < 1 || segmentMb > MAX_SEGMENT_MB) {
+            throw new IllegalArgumentException("guess.journal.segmentMb fora do intervalo 1 - " + MAX_SEGMENT_MB + ": "
+                    + segmentMb);
+        }
+        try {
+            return new RoundJournal(Paths.get(directory), (int) ((long) segmentMb << 20),
+                    Long.getLong("guess.journal.flushMillis", 100));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Registro de partidas não pôde ser aberto: " + directory, e);
+        }
+    }
+
+    /**
+     *      Cria um leitor dos registros gravados antes desta instância abrir o diretório (execuções anteriores da
+     *  aplicação), sem os que estão sendo escritos agora.
+     * @return Leitor do histórico.
+     * @throws IOException Caso o diretório não possa ser listado.
+     */
+    public RoundJournalReader history() throws IOException {
+        return new RoundJournalReader(directory, historySegment, historyPosition);
+    }
+
+    /**
+     *      Registra o início de uma partida.
+     */
+    public void roundStarted(long session, int round, int secret) {
+        append(ROUND_START, session, round, secret, 0, (byte) 0);
+    }
+
+    /**
+     *      Registra um palpite.
+     * @param result Ordinal do game.GuessResult.
+     */
+    public void guessed(long session, int round, int secret, int guess, int result) {
+        append(GUESS, session, round, secret, guess, (byte) result);
+    }
+
+    private void append(byte type, long session, int round, int secret, int guess, byte result) {
+        CompletableFuture<Segment> pending;
+        while ((pending = tryAppend(type, session, round, secret, guess, result)) != null) {
+            try {
+                pending.join(); // Fora do lock: flush() e close() continuam livres durante a espera
+            } catch (CompletionException e) { // Reserva falhou, tratado pelo rollover() da próxima tentativa
+            }
+        }
+    }
+
+    /**
+     *      Escreve o registro no segmento atual, trocando-o pelo reserva caso esteja cheio.
+     * @return null caso o registro tenha sido escrito (ou ignorado depois do close(), ou descartado por falta de
+     *  segmento), ou o reserva ainda sendo criado para ser esperado antes de uma nova tentativa.
+     */
+    private synchronized CompletableFuture<Segment> tryAppend(byte type, long session, int round, int secret,
+                                                              int guess, byte result) {
+        if (closed) {
+            return null;
+        }
+        if (current.isFull()) {
+            if (!spare.isDone()) {
+                return spare;
+            }
+            if (!rollover()) { // Sem segmento para escrever, até o flush criar o reserva de novo
+                dropped++;
+                return null;
+            }
+        }
+        MappedByteBuffer buffer = current.buffer;
+        int offset = HEADER_SIZE + current.position * RECORD_SIZE;
+        buffer.putLong(offset + TIMESTAMP_OFFSET, System.currentTimeMillis());
+        buffer.putLong(offset + SESSION_OFFSET, session);
+        buffer.putInt(offset + ROUND_OFFSET, round);
+        buffer.putInt(offset + SECRET_OFFSET, secret);
+        buffer.putInt(offset + GUESS_OFFSET, guess);
+        buffer.put(offset + RESULT_OFFSET, result);
+        buffer.put(offset + TYPE_OFFSET, type); // Por último, o registro passa a valer
+        current.position++;
+        appended++;
+        return null;
+    }
+
+    /**
+     *      Faz o último flush e fecha os segmentos. Escritas depois do close() são ignoradas.
+     */
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        Segment unused;
+        try {
+            unused = spare.join(); // Espera o reserva que ainda estiver sendo criado, para fechá-lo
+        } catch (CompletionException e) { // Nenhum arquivo ficou no disco
+            unused = null;
+        }
+        synchronized (this) {
+            current.close();
+        }
+        if (unused != null) { // Segmento reserva vazio, não precisa ficar no disco
+            unused.close();
+            try {
+                Files.deleteIfExists(unused.path);
+            } catch (IOException e) {
+                Log.error("journal.close", e);
+            }
+        }
+    }
+
+    /**
+     *      Troca o segmento cheio pelo reserva, que já está pronto.
+     * @return false caso o reserva não tenha podido ser criado. O erro só vai para o log no primeiro registro
+     *  descartado.
+     */
+    private boolean rollover() {
+        Segment next;
+        try {
+            next = spare.join();
+        } catch (CompletionException e) {
+            if (dropped == 0) {
+                Log.error("journal.spare", e.getCause());
+            }
+            return false;
+        }
+        if (dropped > 0) {
+            Log.warn("journal.dropped", "records", dropped);
+            dropped = 0;
+        }
+        retired.add(current);
+        current = next;
+        prepareSpare();
+        Log.debug("journal.rollover", "segment", current.path);
+        return true;
+    }
+
+    private void prepareSpare() {
+        long index = current.index + 1;
+        spare = CompletableFuture.supplyAsync(() -> {
+            try {
+                return Segment.create(segmentPath(directory, index), index, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, TaskScheduler.getBlockingExecutor());
+    }
+
+    /**
+     *      Cria o segmento reserva de novo caso a última criação tenha falhado.
+     */
+    private synchronized void retrySpare() {
+        if (!closed && spare.isCompletedExceptionally()) {
+            prepareSpare();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushing.compareAndSet(false, true)) { // No máximo um flush por vez
+            TaskScheduler.executeBlocking(() -> {
+                try {
+                    flush();
+                    retrySpare();
+                } finally {
+                    flushing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     *      Group commit: força no disco todos os registros escritos até agora.
+     */
+    private void flush() {
+        long target;
+        List<Segment> toForce;
+        synchronized (this) {
+            if (durable >= appended && retired.isEmpty()) {
+                return;
+            }
+            target = appended;
+            toForce = new ArrayList<>(retired);
+            retired.clear();
+            toForce.add(current);
+        }
+        for (Segment segment : toForce) {
+            segment.buffer.force();
+        }
+        synchronized (this) {
+            durable = Math.max(durable, target);
+            for (int i = 0; i < toForce.size() - 1; i++) { // Segmentos cheios não recebem mais registros
+                toForce.get(i).close();
+            }
+        }
+    }
+
+    /**
+     * @return Segmentos do diretório, em ordem de índice.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+
+    private static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%010d%s", PREFIX, index, SUFFIX));
+    }
+
+    /**
+     *      Um arquivo de segmento mapeado para escrita.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity; // Quantidade de registros
+        private int position; // Próximo registro livre
+
+        private Segment(Path path, long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        }
+
+        static Segment create(Path path, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            MappedByteBuffer buffer;
+            try {
+                buffer = map(channel, size);
+            } catch (IOException e) { // Sem espaço no disco, por exemplo
+                channel.close();
+                Files.deleteIfExists(path);
+                throw e;
+            }
+            buffer.putLong(0, MAGIC).putInt(8, VERSION).putInt(12, RECORD_SIZE).putLong(16, index);
+            return new Segment(path, index, channel, buffer);
+        }
+
+        /**
+         *      Abre um segmento existente e procura o primeiro registro livre.
+         */
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = map(channel, (int) channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION
+                    || buffer.getInt(12) != RECORD_SIZE) {
+                channel.close();
+                throw new IOException("Segmento inválido: " + path);
+            }
+            Segment segment = new Segment(path, buffer.getLong(16), channel, buffer);
+            while (segment.position < segment.capacity
+                    && buffer.get(HEADER_SIZE + segment.position * RECORD_SIZE + TYPE_OFFSET) != 0) {
+                segment.position++;
+            }
+            return segment;
+        }
+
+        private static MappedByteBuffer map(FileChannel channel, int size) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+
+        boolean isFull() {
+            return position >= capacity;
+        }
+
+        void close() {
+            try {
+                channel.close(); // O mapeamento continua válido até o buffer ser coletado
+            } catch (IOException e) {
+                Log.error("journal.close", e);
+            }
+        }
+    }
+}
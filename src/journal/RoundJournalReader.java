@@ -0,0 +1,135 @@
+package journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static journal.RoundJournal.*;
+
+/**
+ *      Lê os registros de um RoundJournal em ordem, segmento por segmento. Funciona como um cursor: next() avança para
+ *  o próximo registro e os getters retornam os campos dele, sem criar um objeto por registro.
+ *
+ *  Cada segmento termina no primeiro registro com tipo 0 (não escrito ou interrompido), e a leitura continua no
+ *  segmento seguinte. Pode ser usado enquanto o registro é escrito, mas só vê os segmentos existentes na criação; o
+ *  RoundJournal.history() cria um leitor limitado aos registros anteriores à abertura do registro.
+ */
+public final class RoundJournalReader implements Closeable {
+    private final List<Path> segments;
+    private final long endSegment; // Índice do último segmento lido
+    private final int endPosition; // Quantidade de registros lidos do último segmento
+    private int segmentIndex = -1;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int offset; // Início do registro atual
+    private int limit; // Fim dos registros do segmento atual, em bytes
+
+    /**
+     * @param directory Diretório dos segmentos.
+     * @throws IOException Caso o diretório não possa ser listado.
+     */
+    public RoundJournalReader(Path directory) throws IOException {
+        this(directory, Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param directory Diretório dos segmentos.
+     * @param endSegment Índice do último segmento lido.
+     * @param endPosition Quantidade de registros lidos do último segmento.
+     * @throws IOException Caso o diretório não possa ser listado.
+     */
+    RoundJournalReader(Path directory, long endSegment, int endPosition) throws IOException {
+        this.segments = RoundJournal.listSegments(directory);
+        this.endSegment = endSegment;
+        this.endPosition = endPosition;
+    }
+
+    /**
+     *      Avança para o próximo registro.
+     * @return false caso não haja mais registros.
+     * @throws IOException Caso um segmento não possa ser lido ou seja inválido.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (buffer != null) {
+                int nextOffset = offset < 0 ? HEADER_SIZE : offset + RECORD_SIZE;
+                if (nextOffset + RECORD_SIZE <= limit && buffer.get(nextOffset + TYPE_OFFSET) != 0) {
+                    offset = nextOffset;
+                    return true;
+                }
+            }
+            if (!openNextSegment()) {
+                return false;
+            }
+        }
+    }
+
+    public byte getType() {
+        return buffer.get(offset + TYPE_OFFSET);
+    }
+
+    public long getTimestamp() {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    public long getSession() {
+        return buffer.getLong(offset + SESSION_OFFSET);
+    }
+
+    public int getRound() {
+        return buffer.getInt(offset + ROUND_OFFSET);
+    }
+
+    public int getSecret() {
+        return buffer.getInt(offset + SECRET_OFFSET);
+    }
+
+    public int getGuess() {
+        return buffer.getInt(offset + GUESS_OFFSET);
+    }
+
+    /**
+     * @return Ordinal do game.GuessResult, válido apenas em registros GUESS.
+     */
+    public int getResult() {
+        return buffer.get(offset + RESULT_OFFSET);
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        close();
+        if (++segmentIndex >= segments.size()) {
+            return false;
+        }
+        Path path = segments.get(segmentIndex);
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION
+                || buffer.getInt(12) != RECORD_SIZE) {
+            throw new IOException("Segmento inválido: " + path);
+        }
+        long index = buffer.getLong(16);
+        if (index > endSegment) { // Escrito depois do limite
+            close();
+            return false;
+        }
+        limit = index < endSegment ? buffer.capacity()
+                : (int) Math.min(buffer.capacity(), HEADER_SIZE + (long) endPosition * RECORD_SIZE);
+        offset = -1;
+        return true;
+    }
+}
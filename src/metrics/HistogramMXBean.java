@@ -0,0 +1,29 @@
+package metrics;
+
+/**
+ *      Atributos de um LatencyHistogram expostos pelo JMX, um MBean por histograma (guess:type=Histogram,name=...).
+ */
+public interface HistogramMXBean {
+    String getName();
+
+    String getUnit();
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    long getP999();
+
+    /**
+     *      Zera o histograma, por exemplo antes de um teste de carga.
+     */
+    void reset();
+}
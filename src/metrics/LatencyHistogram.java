@@ -0,0 +1,155 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *      Histograma no estilo do HdrHistogram: os valores são contados em faixas log-lineares, com 64 faixas por
+ *  potência de 2, então qualquer percentil tem erro relativo abaixo de 1,6% e o histograma tem tamanho fixo,
+ *  independente da quantidade de valores.
+ *
+ *  Valores abaixo de 128 têm uma faixa cada. Acima disso, um valor v com shift = (bits de v) - 7 cai na faixa
+ *  64 * shift + (v >>> shift). Ex: 1000 (10 bits, shift 3) cai na faixa 64 * 3 + 125 = 317, que vai de 1000 a 1007.
+ *
+ *  O record() não aloca e não usa locks, apenas contadores atômicos, então pode ser chamado de qualquer thread no
+ *  caminho crítico. As leituras (percentis, média) são feitas sobre os contadores atuais, sem parar as gravações.
+ */
+public final class LatencyHistogram implements HistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 7; // 128 faixas na primeira potência de 2
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final long MAX_VALUE = (1L << 40) - 1; // Valores maiores são contados como MAX_VALUE
+    private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param name Nome do histograma, ex: fetch.status200.
+     * @param unit Unidade dos valores, ex: us.
+     */
+    public LatencyHistogram(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /**
+     *      Conta um valor. Valores negativos são contados como 0.
+     * @param value Valor medido.
+     */
+    public void record(long value) {
+        long clamped = Math.min(MAX_VALUE, Math.max(0, value));
+        counts.incrementAndGet(bucketIndex(clamped));
+        totalCount.incrementAndGet();
+        sum.addAndGet(clamped);
+        long currentMax;
+        while (clamped > (currentMax = max.get()) && !max.compareAndSet(currentMax, clamped)) {
+            // Outra thread gravou um máximo ao mesmo tempo, tenta de novo
+        }
+    }
+
+    /**
+     *      Conta o tempo passado desde start, em microssegundos.
+     * @param startNanos Valor de System.nanoTime() no início da medição.
+     */
+    public void recordSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    @Override
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90() {
+        return getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     *      Retorna o maior valor da faixa onde está o percentil, limitado ao máximo gravado.
+     * @param percentile Percentil entre 0 e 100.
+     * @return Valor no percentil, ou 0 caso o histograma esteja vazio.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueInBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < (1 << SUB_BUCKET_BITS)) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return HALF_SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    static long highestValueInBucket(int index) {
+        if (index < (1 << SUB_BUCKET_BITS)) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - (long) HALF_SUB_BUCKETS * shift;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,172 @@
+package metrics;
+
+import utils.Log;
+import utils.TaskScheduler;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ *      Métricas da aplicação. Os histogramas e contadores são criados uma única vez, então gravar um valor é apenas
+ *  um acesso a um campo estático seguido de operações atômicas, sem alocação:
+ *
+ *  - fetch.status<código>: latência dos requests de número (us), separada pelo código http (0 = falha de conexão).
+ *  - fetch.timeouts, fetch.sslErrors: quantidade de requests que expiraram ou falharam no SSL.
+ *  - round.start: tempo entre pedir uma nova partida e os inputs serem liberados na UI (us).
+ *  - round.guesses: quantidade de palpites até o acerto.
+ *  - led.recolor: tempo de pintura de uma nova cor do display (us).
+ *
+ *  Todas as métricas são registradas no JMX (domínio guess) no initialize(), e podem ser escritas no Log de tempos em
+ *  tempos (propriedade de sistema guess.metrics.dumpSeconds, 0 desliga).
+ */
+public final class Metrics {
+    private static final String DOMAIN = "guess";
+    private static final int MAX_STATUS = 599;
+
+    public static final LatencyHistogram ROUND_START = new LatencyHistogram("round.start", "us");
+    public static final LatencyHistogram ROUND_GUESSES = new LatencyHistogram("round.guesses", "guesses");
+    public static final LatencyHistogram RECOLOR = new LatencyHistogram("led.recolor", "us");
+    public static final AtomicLong FETCH_TIMEOUTS = new AtomicLong();
+    public static final AtomicLong FETCH_SSL_ERRORS = new AtomicLong();
+
+    // Histogramas de latência por código http, criados no primeiro uso de cada código
+    private static final AtomicReferenceArray<LatencyHistogram> fetchByStatus =
+            new AtomicReferenceArray<>(MAX_STATUS + 1);
+    private static final Map<String, HistogramMXBean> histograms = new ConcurrentHashMap<>();
+    private static volatile boolean registered;
+    private static ScheduledFuture<?> dumpTask;
+
+    static {
+        for (LatencyHistogram histogram : new LatencyHistogram[]{ROUND_START, ROUND_GUESSES, RECOLOR}) {
+            histograms.put(histogram.getName(), histogram);
+        }
+    }
+
+    private Metrics() { // Sem instânciação
+    }
+
+    /**
+     *      Registra as métricas no JMX e inicia a escrita periódica no Log, caso configurada. Pode ser chamado mais de
+     *  uma vez.
+     */
+    public static synchronized void initialize() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        register(DOMAIN + ":type=Counters", new Counters());
+        for (HistogramMXBean histogram : histograms.values()) {
+            registerHistogram(histogram);
+        }
+        long dumpSeconds = Long.getLong("guess.metrics.dumpSeconds", 60);
+        if (dumpSeconds > 0) {
+            dumpTask = TaskScheduler.scheduleAtFixedRate(Metrics::dump, dumpSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     *      Para a escrita periódica no Log.
+     */
+    public static synchronized void stopDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+    }
+
+    /**
+     *      Adiciona um histograma criado fora desta classe (ex: os do FxProfiler) ao JMX e à escrita periódica.
+     * @param histogram Histograma a ser adicionado.
+     * @return O próprio histograma.
+     */
+    public static LatencyHistogram register(LatencyHistogram histogram) {
+        if (histograms.putIfAbsent(histogram.getName(), histogram) == null && registered) {
+            registerHistogram(histogram);
+        }
+        return histogram;
+    }
+
+    /**
+     *      Retorna o histograma de latência do código http. Após o primeiro uso de cada código não há alocação.
+     * @param status Código http, 0 para falhas sem resposta.
+     * @return Histograma do código.
+     */
+    public static LatencyHistogram fetchLatency(int status) {
+        int index = status < 0 || status > MAX_STATUS ? 0 : status;
+        LatencyHistogram histogram = fetchByStatus.get(index);
+        if (histogram != null) {
+            return histogram;
+        }
+        LatencyHistogram created = new LatencyHistogram("fetch.status" + index, "us");
+        if (!fetchByStatus.compareAndSet(index, null, created)) {
+            return fetchByStatus.get(index); // Outra thread criou primeiro
+        }
+        histograms.put(created.getName(), created);
+        if (registered) {
+            registerHistogram(created);
+        }
+        return created;
+    }
+
+    /**
+     *      Escreve uma linha no Log para cada histograma com valores, e uma para os contadores.
+     */
+    public static void dump() {
+        if (!Log.isEnabled(Log.Level.INFO)) {
+            return;
+        }
+        for (HistogramMXBean histogram : histograms.values()) {
+            if (histogram.getCount() == 0) continue;
+            Log.info("metrics.histogram", "name", histogram.getName(), "unit", histogram.getUnit(),
+                    "count", histogram.getCount(), "mean", Math.round(histogram.getMean()),
+                    "p50", histogram.getP50(), "p90", histogram.getP90(), "p99", histogram.getP99(),
+                    "max", histogram.getMax());
+        }
+        Log.info("metrics.counters", "fetchTimeouts", FETCH_TIMEOUTS.get(), "fetchSslErrors", FETCH_SSL_ERRORS.get());
+    }
+
+    private static void registerHistogram(HistogramMXBean histogram) {
+        register(DOMAIN + ":type=Histogram,name=" + histogram.getName(), histogram);
+    }
+
+    private static void register(String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            Log.error("metrics.register", e);
+        }
+    }
+
+    /**
+     *      Contadores expostos pelo JMX.
+     */
+    public interface CountersMXBean {
+        long getFetchTimeouts();
+
+        long getFetchSslErrors();
+    }
+
+    private static final class Counters implements CountersMXBean {
+        @Override
+        public long getFetchTimeouts() {
+            return FETCH_TIMEOUTS.get();
+        }
+
+        @Override
+        public long getFetchSslErrors() {
+            return FETCH_SSL_ERRORS.get();
+        }
+    }
+}
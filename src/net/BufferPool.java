@@ -0,0 +1,30 @@
+package net;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ *      Pool limitado de ByteBuffers diretos de tamanho fixo. Buffers diretos são caros de alocar e liberar, então os
+ *  buffers devolvidos são reutilizados; quando o pool está vazio um novo buffer é alocado, e quando está cheio o
+ *  buffer devolvido é descartado.
+ */
+final class BufferPool {
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final int bufferSize;
+
+    BufferPool(int capacity, int bufferSize) {
+        this.buffers = new ArrayBlockingQueue<>(capacity);
+        this.bufferSize = bufferSize;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+}
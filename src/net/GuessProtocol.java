@@ -0,0 +1,37 @@
+package net;
+
+/**
+ *      Protocolo de texto usado entre o GuessServer e o RemoteGameClient. Cada mensagem é uma linha ASCII terminada
+ *  em '\n' ('\r' é ignorado), começando por um byte de comando:
+ *
+ *  Do cliente para o servidor:
+ *  - N          Começa uma nova partida.
+ *  - G<número>  Palpite, ex: G150.
+ *
+ *  Do servidor para o cliente (uma resposta por mensagem, na mesma ordem):
+ *  - S          A nova partida começou.
+ *  - E<código>  O número da nova partida não pôde ser obtido, ex: E404.
+ *  - C          Acertou.
+ *  - L          É menor.
+ *  - H          É maior.
+ *  - X          Não há partida em andamento.
+ *  - ?          Mensagem inválida.
+ */
+final class GuessProtocol {
+    static final byte NEW_ROUND = 'N';
+    static final byte GUESS = 'G';
+
+    static final byte STARTED = 'S';
+    static final byte ERROR = 'E';
+    static final byte CORRECT = 'C';
+    static final byte LOWER = 'L';
+    static final byte HIGHER = 'H';
+    static final byte NOT_PLAYING = 'X';
+    static final byte INVALID = '?';
+
+    static final byte END = '\n';
+    static final int MAX_LINE = 16; // Tamanho máximo de uma mensagem, maior que isso é inválida
+
+    private GuessProtocol() { // Sem instânciação
+    }
+}
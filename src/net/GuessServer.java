@@ -0,0 +1,517 @@
+package net;
+
+import game.GameEngine;
+import game.GameSession;
+import game.GuessResult;
+import journal.RoundJournal;
+import metrics.Metrics;
+import utils.HttpNumberException;
+import utils.Log;
+import utils.NumberSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *      Servidor do jogo para vários jogadores remotos, todos jogando no mesmo GameEngine. Cada conexão é um jogo
+ *  (GameSession) próprio, criado quando o cliente conecta e removido quando ele desconecta. O protocolo está descrito
+ *  em GuessProtocol.
+ *
+ *  O servidor não usa uma thread por conexão: poucos reatores (um Selector e uma thread cada) atendem todas as
+ *  conexões, que são distribuídas entre eles ao serem aceitas. Cada reator tem um buffer direto de leitura e um de
+ *  escrita compartilhados por todas as suas conexões, e as mensagens são lidas e escritas byte a byte, sem criar
+ *  Strings. Só quando um cliente não consegue receber a resposta inteira um buffer do BufferPool é emprestado para
+ *  guardar o que falta.
+ *
+ *  O cliente deve esperar a resposta do comando N antes de enviar outro comando, pois o número da nova partida
+ *  pode demorar a chegar.
+ */
+public final class GuessServer implements Closeable {
+    private static final int DEFAULT_PORT = 4300;
+    private static final int BUFFER_SIZE = 16 * 1024; // Buffers de leitura e escrita de cada reator
+    private static final int PENDING_BUFFER_SIZE = 1024; // Saída pendente de um cliente lento
+    private static final int MAX_RESPONSE = 16; // Tamanho máximo de uma resposta
+
+    private final GameEngine engine;
+    private final ServerSocketChannel serverChannel;
+    private final Reactor[] reactors;
+    private final Thread[] threads;
+    private final BufferPool pendingBuffers = new BufferPool(1024, PENDING_BUFFER_SIZE);
+    private final AtomicInteger nextReactor = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean running;
+
+    /**
+     * @param engine Motor onde os jogos são criados.
+     * @param address Endereço onde o servidor escuta.
+     * @param reactorCount Quantidade de reatores (threads).
+     * @throws IOException Caso o endereço não possa ser usado.
+     */
+    public GuessServer(GameEngine engine, InetSocketAddress address, int reactorCount) throws IOException {
+        this.engine = engine;
+        this.reactors = new Reactor[Math.max(1, reactorCount)];
+        this.threads = new Thread[reactors.length];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor();
+            threads[i] = new Thread(reactors[i], "guess-selector-" + i);
+        }
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, 1024);
+        serverChannel.register(reactors[0].selector, SelectionKey.OP_ACCEPT); // O primeiro reator também aceita
+    }
+
+    /**
+     *      Inicia as threads dos reatores.
+     */
+    public void start() {
+        running = true;
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     *      Para o servidor, fechando todas as conexões.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (Reactor reactor : reactors) {
+            reactor.selector.wakeup();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Porta onde o servidor escuta.
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return Quantidade de clientes conectados.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     *      Inicia o servidor com a fonte de números escolhida pela propriedade guess.numbers.
+     * @param args Porta (opcional, padrão 4300) e quantidade de reatores (opcional).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int reactorCount = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        NumberSource numberSource = NumberSource.fromConfig();
+        RoundJournal journal = RoundJournal.fromConfig();
+        GameEngine engine = new GameEngine(numberSource, journal);
+        GuessServer server = new GuessServer(engine, new InetSocketAddress(port), reactorCount);
+        engine.startIdleEvictionFromConfig(); // Jogos de conexões esquecidas abertas
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            engine.stopIdleEviction();
+            try {
+                server.close();
+            } catch (IOException e) {
+                Log.error("server.close", e);
+            }
+            numberSource.close();
+            if (journal != null) {
+                journal.close();
+            }
+        }));
+        server.start();
+        Metrics.initialize();
+        Log.info("server.started", "port", server.getPort(), "reactors", reactorCount);
+    }
+
+    /**
+     *      Estado de uma conexão: o jogo do cliente, a mensagem que está sendo lida e a saída pendente.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private long sessionId; // Trocado caso o jogo seja removido por inatividade
+        private ByteBuffer pending; // Saída que o cliente ainda não recebeu, null na maioria do tempo
+        private boolean closed;
+
+        // Mensagem sendo lida
+        private int length; // Bytes lidos da mensagem atual, sem contar '\r' e '\n'
+        private byte command;
+        private long value;
+        private boolean hasValue;
+        private boolean invalid;
+
+        Connection(SocketChannel channel, SelectionKey key, long sessionId) {
+            this.channel = channel;
+            this.key = key;
+            this.sessionId = sessionId;
+        }
+
+        /**
+         *      Lê o próximo byte da mensagem.
+         * @return true caso a mensagem tenha terminado.
+         */
+        boolean accept(byte b) {
+            if (b == GuessProtocol.END) {
+                return true;
+            }
+            if (b == '\r') {
+                return false;
+            }
+            if (length++ == 0) { // Primeiro byte é o comando
+                command = b;
+                value = 0;
+                hasValue = false;
+                invalid = false;
+            } else if (length > GuessProtocol.MAX_LINE || b < '0' || b > '9') {
+                invalid = true;
+            } else {
+                value = value * 10 + (b - '0');
+                hasValue = true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     *      Um Selector com a sua thread. Tudo que envolve as conexões do reator (incluindo as respostas de partidas
+     *  que começaram em outras threads) acontece na thread do reator, por meio da fila de tarefas.
+     */
+    private final class Reactor implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Reactor() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        /**
+         *      Executa a tarefa na thread do reator.
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        runTask(task);
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handleKey(key);
+                    }
+                }
+            } catch (IOException e) {
+                Log.error("server.selector", e);
+            } finally {
+                closeAll();
+            }
+        }
+
+        /**
+         *      Executa uma tarefa da fila. Um erro afeta apenas a conexão da tarefa, o reator continua atendendo as
+         *  demais.
+         */
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.error("server.task", e);
+            }
+        }
+
+        private void handleKey(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                acceptAll();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    read(connection);
+                }
+                if (!connection.closed && key.isWritable()) {
+                    flushPending(connection);
+                }
+            } catch (IOException e) { // Cliente desconectou
+                close(connection);
+            } catch (RuntimeException e) { // Erro inesperado, fecha apenas esta conexão
+                Log.error("server.connection", e);
+                close(connection);
+            }
+        }
+
+        private void acceptAll() {
+            try {
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    Reactor target = reactors[Math.floorMod(nextReactor.getAndIncrement(), reactors.length)];
+                    if (target == this) {
+                        register(channel);
+                    } else {
+                        SocketChannel accepted = channel;
+                        target.execute(() -> target.register(accepted));
+                    }
+                }
+            } catch (IOException e) {
+                Log.error("server.accept", e);
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key, engine.createSession().getId()));
+                connections.incrementAndGet();
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        /**
+         *      Lê o que chegou do cliente e responde todas as mensagens completas de uma vez.
+         */
+        private void read(Connection connection) throws IOException {
+            readBuffer.clear();
+            if (connection.channel.read(readBuffer) < 0) { // Cliente fechou a conexão
+                close(connection);
+                return;
+            }
+            readBuffer.flip();
+            writeBuffer.clear();
+            while (readBuffer.hasRemaining() && !connection.closed) {
+                if (connection.accept(readBuffer.get())) {
+                    handleMessage(connection);
+                }
+            }
+            if (!connection.closed) {
+                flush(connection);
+            }
+        }
+
+        private void handleMessage(Connection connection) throws IOException {
+            if (connection.length == 0) { // Linha vazia
+                return;
+            }
+            connection.length = 0;
+            if (writeBuffer.remaining() < MAX_RESPONSE) { // Buffer de escrita cheio, envia o que já tem
+                flush(connection);
+                writeBuffer.clear();
+            }
+            if (connection.invalid) {
+                putResponse(GuessProtocol.INVALID);
+                return;
+            }
+            try {
+                switch (connection.command) {
+                    case GuessProtocol.NEW_ROUND:
+                        if (connection.hasValue) {
+                            putResponse(GuessProtocol.INVALID);
+                        } else {
+                            newRound(connection);
+                        }
+                        break;
+                    case GuessProtocol.GUESS:
+                        if (!connection.hasValue || connection.value > Integer.MAX_VALUE) {
+                            putResponse(GuessProtocol.INVALID);
+                        } else {
+                            guess(connection, (int) connection.value);
+                        }
+                        break;
+                    default:
+                        putResponse(GuessProtocol.INVALID);
+                }
+            } catch (RuntimeException e) { // Ex: jogo removido por inatividade, falha do registro de partidas
+                Log.error("server.request", e);
+                putError(0); // A resposta é escrita depois de todas as chamadas ao motor, então nada foi escrito
+            }
+        }
+
+        private void guess(Connection connection, int number) {
+            GameSession session = engine.getSession(connection.sessionId);
+            if (session == null || !session.isPlaying()) {
+                putResponse(GuessProtocol.NOT_PLAYING);
+                return;
+            }
+            GuessResult result = engine.guess(connection.sessionId, number);
+            putResponse(result == GuessResult.CORRECT ? GuessProtocol.CORRECT
+                    : result == GuessResult.LOWER ? GuessProtocol.LOWER : GuessProtocol.HIGHER);
+        }
+
+        /**
+         *      Começa uma nova partida. Se o número já estiver disponível a resposta vai junto com as outras, senão
+         *  ela é enviada pela thread do reator quando o número chegar.
+         */
+        private void newRound(Connection connection) {
+            if (engine.getSession(connection.sessionId) == null) { // Removido por inatividade, começa um novo jogo
+                connection.sessionId = engine.createSession().getId();
+            }
+            CompletableFuture<GameSession> round = engine.newRound(connection.sessionId);
+            if (round.isDone()) {
+                putRoundResponse(round);
+                return;
+            }
+            round.whenComplete((session, error) -> execute(() -> {
+                if (connection.closed) {
+                    return;
+                }
+                writeBuffer.clear();
+                putRoundResponse(round);
+                try {
+                    flush(connection);
+                } catch (IOException e) {
+                    close(connection);
+                }
+            }));
+        }
+
+        private void putRoundResponse(CompletableFuture<GameSession> round) {
+            try {
+                round.join();
+                putResponse(GuessProtocol.STARTED);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                putError(cause instanceof HttpNumberException ? ((HttpNumberException) cause).getHttpCode() : 0);
+            }
+        }
+
+        private void putResponse(byte response) {
+            writeBuffer.put(response).put(GuessProtocol.END);
+        }
+
+        /**
+         *      Escreve "E<código>\n" sem converter o código para String.
+         */
+        private void putError(int code) {
+            writeBuffer.put(GuessProtocol.ERROR);
+            int value = Math.max(0, code);
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            int end = writeBuffer.position() + digits;
+            for (int i = end - 1; i >= writeBuffer.position(); i--) {
+                writeBuffer.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            writeBuffer.position(end);
+            writeBuffer.put(GuessProtocol.END);
+        }
+
+        /**
+         *      Envia o conteúdo do buffer de escrita. O que o cliente não conseguir receber vai para um buffer do pool,
+         *  enviado quando o socket puder ser escrito de novo.
+         */
+        private void flush(Connection connection) throws IOException {
+            writeBuffer.flip();
+            if (!writeBuffer.hasRemaining()) {
+                return;
+            }
+            if (connection.pending == null) {
+                connection.channel.write(writeBuffer);
+                if (!writeBuffer.hasRemaining()) {
+                    return;
+                }
+                connection.pending = pendingBuffers.acquire();
+                connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            if (writeBuffer.remaining() > connection.pending.remaining()) { // Cliente lento demais
+                close(connection);
+                return;
+            }
+            connection.pending.put(writeBuffer);
+        }
+
+        private void flushPending(Connection connection) throws IOException {
+            ByteBuffer pending = connection.pending;
+            if (pending == null) {
+                return;
+            }
+            pending.flip();
+            connection.channel.write(pending);
+            if (pending.hasRemaining()) {
+                pending.compact();
+                return;
+            }
+            pendingBuffers.release(pending);
+            connection.pending = null;
+            connection.key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void close(Connection connection) {
+            if (connection.closed) {
+                return;
+            }
+            connection.closed = true;
+            connection.key.cancel();
+            try {
+                connection.channel.close();
+            } catch (IOException ignored) {
+            }
+            engine.removeSession(connection.sessionId);
+            if (connection.pending != null) {
+                pendingBuffers.release(connection.pending);
+                connection.pending = null;
+            }
+            connections.decrementAndGet();
+        }
+
+        private void closeAll() {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    close((Connection) key.attachment());
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net;
+
+import game.AutoPlayer;
+import game.GameClient;
+import game.GameEngine;
+import game.LoadGenerator;
+import game.LocalGameClient;
+import journal.RoundJournal;
+import utils.Log;
+import utils.NumberSource;
+import utils.RandomNumberSource;
+import utils.TaskScheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *      Teste de carga sem interface: um LoadGenerator com N jogadores automáticos.
+ *
+ *      Uso: LoadTest [jogadores (8)] [segundos (10)] [estratégia binary|random|mixed (binary)]
+ *
+ *  Com a propriedade guess.server (host:porta) cada jogador abre uma conexão com o GuessServer, senão todos jogam no
+ *  mesmo GameEngine local. O motor local usa a fonte da propriedade guess.numbers, ou um RandomNumberSource caso ela
+ *  não esteja definida, para medir o jogo e não a rede. O aquecimento é configurado por guess.load.warmup (2 s) e a
+ *  semente por guess.load.seed. Com guess.journal o motor local grava as partidas no RoundJournal.
+ */
+public final class LoadTest {
+    private LoadTest() { // Sem instânciação
+    }
+
+    public static void main(String[] args) throws Exception {
+        int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        AutoPlayer.Strategy strategy = args.length > 2 ? AutoPlayer.Strategy.valueOf(args[2].toUpperCase(Locale.ROOT))
+                : AutoPlayer.Strategy.BINARY;
+        String server = System.getProperty("guess.server");
+        NumberSource numberSource = null;
+        RoundJournal journal = null;
+        List<GameClient> clients = new ArrayList<>();
+        if (server == null || server.isEmpty()) {
+            numberSource = System.getProperty("guess.numbers") == null ? new RandomNumberSource(false)
+                    : NumberSource.fromConfig();
+            journal = RoundJournal.fromConfig(); // Mede também o custo do registro de partidas
+            GameEngine engine = new GameEngine(numberSource, journal);
+            for (int i = 0; i < playerCount; i++) {
+                clients.add(new LocalGameClient(engine));
+            }
+        } else {
+            int separator = server.lastIndexOf(':');
+            String host = server.substring(0, separator);
+            int port = Integer.parseInt(server.substring(separator + 1));
+            for (int i = 0; i < playerCount; i++) {
+                clients.add(new RemoteGameClient(host, port));
+            }
+        }
+        Log.info("load.started", "players", playerCount, "seconds", seconds, "strategy", strategy,
+                "target", server == null ? "local" : server);
+        try {
+            LoadGenerator generator = new LoadGenerator(clients, strategy,
+                    Long.getLong("guess.load.seed", System.nanoTime()), AutoPlayer.Observer.NONE);
+            generator.run(Long.getLong("guess.load.warmup", 2), seconds, TimeUnit.SECONDS).get().log();
+        } finally {
+            for (GameClient client : clients) {
+                if (client instanceof Closeable) {
+                    close((Closeable) client);
+                }
+            }
+            if (numberSource != null) {
+                numberSource.close();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            TaskScheduler.shutdown();
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.error("load.close", e);
+        }
+    }
+}
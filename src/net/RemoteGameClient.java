@@ -0,0 +1,221 @@
+package net;
+
+import game.GameClient;
+import game.GuessResult;
+import utils.HttpNumberException;
+import utils.TaskScheduler;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *      GameClient que joga em um GuessServer remoto. A conexão é aberta no primeiro uso e cada mensagem espera a sua
+ *  resposta, sempre no executor bloqueante do TaskScheduler, nunca na thread do JavaFX. Se a conexão cair ela é
+ *  aberta de novo no próximo uso (com um novo jogo no servidor).
+ *
+ *  A conexão tem o tempo limite da propriedade guess.server.connectTimeout (5000 ms), e cada mensagem o tempo limite
+ *  guess.server.readTimeout (10000 ms) para ser enviada e respondida, esperado em um Selector próprio. Como no
+ *  HttpNumber, um tempo esgotado vira uma HttpNumberException com o tempo limite como código, mostrado pela UI, e a
+ *  conexão é fechada.
+ */
+public final class RemoteGameClient implements GameClient, Closeable {
+    private static final int CONNECT_TIMEOUT = Integer.getInteger("guess.server.connectTimeout", 5000);
+    private static final int READ_TIMEOUT = Integer.getInteger("guess.server.readTimeout", 10000);
+
+    private final String host;
+    private final int port;
+    private final ByteBuffer out = ByteBuffer.allocate(GuessProtocol.MAX_LINE + 2);
+    private final ByteBuffer in = ByteBuffer.allocate(64);
+    private SocketChannel channel;
+    private Selector selector; // Espera as respostas com tempo limite
+    private SelectionKey key;
+    private int errorCode; // Código da última resposta E<código>
+
+    /**
+     * @param host Endereço do servidor.
+     * @param port Porta do servidor.
+     */
+    public RemoteGameClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public CompletableFuture<HttpNumberException> newRound() {
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (RemoteGameClient.this) { // errorCode pertence a esta resposta
+                byte response = call(GuessProtocol.NEW_ROUND, -1);
+                if (response == GuessProtocol.ERROR) {
+                    throw new CompletionException(
+                            new HttpNumberException(errorCode, "Número não obtido pelo servidor"));
+                }
+                if (response != GuessProtocol.STARTED) {
+                    throw unexpected(response);
+                }
+                return null; // O protocolo não informa se o servidor usou a fonte reserva
+            }
+        }, TaskScheduler.getBlockingExecutor());
+    }
+
+    @Override
+    public CompletableFuture<GuessResult> guess(int number) {
+        return CompletableFuture.supplyAsync(() -> {
+            byte response = call(GuessProtocol.GUESS, number);
+            switch (response) {
+                case GuessProtocol.CORRECT:
+                    return GuessResult.CORRECT;
+                case GuessProtocol.LOWER:
+                    return GuessResult.LOWER;
+                case GuessProtocol.HIGHER:
+                    return GuessResult.HIGHER;
+                case GuessProtocol.NOT_PLAYING:
+                    throw new CompletionException(new IllegalStateException("Nenhuma partida em andamento"));
+                default:
+                    throw unexpected(response);
+            }
+        }, TaskScheduler.getBlockingExecutor());
+    }
+
+    /**
+     *      Fecha a conexão com o servidor, encerrando o jogo remoto.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+            selector = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static CompletionException unexpected(byte response) {
+        return new CompletionException(new IOException("Resposta inesperada do servidor: " + (char) response));
+    }
+
+    /**
+     *      Envia uma mensagem e espera a resposta.
+     * @param command Comando do protocolo.
+     * @param number Número enviado junto com o comando, negativo para nenhum.
+     * @return Primeiro byte da resposta. Caso seja E, o código fica em errorCode.
+     */
+    private synchronized byte call(byte command, int number) {
+        try {
+            if (channel == null || !channel.isOpen()) {
+                connect();
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(READ_TIMEOUT);
+            out.clear();
+            out.put(command);
+            if (number >= 0) {
+                putNumber(number);
+            }
+            out.put(GuessProtocol.END).flip();
+            while (out.hasRemaining()) {
+                if (channel.write(out) == 0) { // Buffer do socket cheio
+                    await(SelectionKey.OP_WRITE, deadline);
+                }
+            }
+            return readResponse(deadline);
+        } catch (IOException e) {
+            try {
+                close();
+            } catch (IOException ignored) {
+            }
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     *      Abre a conexão com tempo limite e a registra, já não bloqueante, no Selector do cliente.
+     */
+    private void connect() throws IOException {
+        close();
+        channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+        } catch (SocketTimeoutException e) {
+            throw new HttpNumberException(CONNECT_TIMEOUT, e);
+        }
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        key = channel.register(selector, 0);
+        in.clear().flip();
+    }
+
+    /**
+     *      Espera o socket poder ser lido ou escrito, até o prazo da mensagem.
+     * @param operation SelectionKey.OP_READ ou SelectionKey.OP_WRITE.
+     * @param deadline Prazo da mensagem (System.nanoTime()).
+     * @throws HttpNumberException Caso o prazo tenha terminado.
+     */
+    private void await(int operation, long deadline) throws IOException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new HttpNumberException(READ_TIMEOUT, "Servidor não respondeu em " + READ_TIMEOUT + " ms");
+        }
+        key.interestOps(operation);
+        selector.select(remaining);
+        selector.selectedKeys().clear();
+    }
+
+    private void putNumber(int number) {
+        int start = out.position();
+        do {
+            out.put((byte) ('0' + number % 10));
+            number /= 10;
+        } while (number > 0);
+        for (int i = start, j = out.position() - 1; i < j; i++, j--) { // Dígitos foram escritos ao contrário
+            byte digit = out.get(i);
+            out.put(i, out.get(j));
+            out.put(j, digit);
+        }
+    }
+
+    /**
+     *      Lê uma linha de resposta. O buffer in fica em modo de leitura entre as chamadas, guardando o que já chegou
+     *  da próxima resposta.
+     */
+    private byte readResponse(long deadline) throws IOException {
+        byte response = 0;
+        int length = 0;
+        errorCode = 0;
+        while (true) {
+            while (in.hasRemaining()) {
+                byte b = in.get();
+                if (b == GuessProtocol.END) {
+                    return response;
+                }
+                if (b == '\r') continue;
+                if (length++ == 0) {
+                    response = b;
+                } else if (b >= '0' && b <= '9') {
+                    errorCode = errorCode * 10 + (b - '0');
+                }
+            }
+            in.clear();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Servidor fechou a conexão");
+            }
+            if (read == 0) { // Nada chegou ainda
+                await(SelectionKey.OP_READ, deadline);
+            }
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package stats;
+
+import journal.RoundJournal;
+import journal.RoundJournalReader;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ *      Estatísticas das partidas, atualizadas de forma incremental a cada partida terminada (nada é recalculado):
+ *
+ *  - Globais: distribuição de palpites até o acerto, tempo de solução (média e percentis), partidas abandonadas e a
+ *      média das últimas RECENT_WINDOW partidas.
+ *  - Por jogador: vitórias, palpites, tempo, melhor partida, média móvel exponencial de palpites e sequências. Uma
+ *      partida entra na sequência quando é resolvida em até getOptimalGuesses() palpites (o pior caso da busca
+ *      binária no intervalo do GameConfig); uma partida pior ou abandonada zera a sequência.
+ *  - Ranking dos topK jogadores por pontos: cada vitória vale max(1, ótimo + 1 - palpites) pontos. Como os pontos só
+ *      aumentam, um min-heap de tamanho topK mantém o ranking exato a cada vitória, sem ordenar todos os jogadores.
+ *
+ *  Tudo fica em arrays primitivos que crescem com a quantidade de jogadores, não de partidas, então a memória não muda
+ *  com milhões de partidas. Os métodos são sincronizados e rápidos; a UI lê um Snapshot criado fora da thread do JavaFX.
+ *
+ *  Jogadores são identificados por uma chave long: os jogos desta execução usam LIVE | id do jogo, e os de execuções
+ *  anteriores lidos pelo rebuild() usam (execução << 32) | id do jogo.
+ */
+public final class GameStats {
+    public static final long LIVE = 1L << 62; // Marca as chaves dos jogos desta execução
+    private static final int MAX_TRACKED = 32; // Palpites a partir daqui ficam no último balde da distribuição
+    private static final int RECENT_WINDOW = 256;
+    private static final double EMA_WEIGHT = 0.2; // Peso da última partida na média móvel
+
+    private final int optimalGuesses;
+    private final int topK;
+    private final LatencyHistogram solveTime;
+
+    // Globais
+    private final long[] distribution = new long[MAX_TRACKED + 1];
+    private long rounds, totalGuesses, totalSolveMillis, abandoned;
+    private final int[] recent = new int[RECENT_WINDOW]; // Palpites das últimas partidas, buffer circular
+    private int recentNext, recentCount;
+    private long recentSum;
+
+    // Por jogador, na posição dada pelo PlayerIndex
+    private final PlayerIndex index = new PlayerIndex(64);
+    private long[] keys = new long[64];
+    private int[] wins = new int[64];
+    private long[] guesses = new long[64];
+    private long[] solveMillis = new long[64];
+    private int[] best = new int[64];
+    private double[] ema = new double[64];
+    private int[] streak = new int[64];
+    private int[] bestStreak = new int[64];
+    private long[] points = new long[64];
+    private int[] heapPosition = new int[64]; // Posição no ranking, -1 fora dele
+
+    // Ranking: min-heap de posições de jogadores, o pior dos topK na raiz
+    private final int[] heap;
+    private int heapSize;
+
+    /**
+     * @param min Menor número do jogo.
+     * @param max Maior número do jogo.
+     * @param topK Tamanho do ranking.
+     */
+    public GameStats(int min, int max, int topK) {
+        long range = Math.max(1, (long) max - min + 1);
+        this.optimalGuesses = 64 - Long.numberOfLeadingZeros(range); // floor(log2(range)) + 1
+        this.topK = Math.max(1, topK);
+        this.heap = new int[this.topK];
+        this.solveTime = Metrics.register(new LatencyHistogram("stats.solveTime", "ms"));
+    }
+
+    /**
+     *      Registra uma partida ganha por um jogo desta execução.
+     * @param sessionId Id do jogo.
+     * @param guessCount Palpites até o acerto.
+     * @param millis Tempo entre o início da partida e o acerto.
+     */
+    public synchronized void roundWon(long sessionId, int guessCount, long millis) {
+        won(LIVE | sessionId, guessCount, millis);
+    }
+
+    /**
+     *      Registra uma partida deixada sem acerto (nova partida pedida no meio) por um jogo desta execução.
+     * @param sessionId Id do jogo.
+     */
+    public synchronized void roundAbandoned(long sessionId) {
+        abandoned(LIVE | sessionId);
+    }
+
+    /**
+     *      Inicialização a frio: lê o histórico do RoundJournal e soma as partidas dele às estatísticas, um registro
+     *  por vez, sem guardar os registros. Pode rodar em segundo plano enquanto partidas novas são registradas, já que
+     *  as chaves das execuções anteriores são diferentes das desta.
+     * @param reader Leitor do histórico, normalmente RoundJournal.history(). É fechado no fim.
+     * @return Quantidade de partidas lidas.
+     * @throws IOException Caso o histórico não possa ser lido.
+     */
+    public long rebuild(RoundJournalReader reader) throws IOException {
+        PlayerIndex pending = new PlayerIndex(64); // Partida em andamento de cada jogo gravado
+        int[] lastRound = new int[64];
+        int[] roundGuesses = new int[64];
+        long[] roundStart = new long[64];
+        long run = 0, count = 0;
+        try (reader) {
+            while (reader.next()) {
+                long key = (run << 32) | reader.getSession();
+                int slot = pending.get(key);
+                if (reader.getType() == RoundJournal.ROUND_START) {
+                    if (slot >= 0 && reader.getRound() <= lastRound[slot]) { // Ids recomeçaram, nova execução
+                        key = (++run << 32) | reader.getSession();
+                        slot = pending.get(key);
+                    }
+                    if (slot < 0) {
+                        slot = pending.getOrAdd(key);
+                        if (slot == lastRound.length) {
+                            lastRound = Arrays.copyOf(lastRound, slot * 2);
+                            roundGuesses = Arrays.copyOf(roundGuesses, slot * 2);
+                            roundStart = Arrays.copyOf(roundStart, slot * 2);
+                        }
+                    } else if (roundGuesses[slot] > 0) { // Partida anterior sem acerto
+                        synchronized (this) {
+                            abandoned(key);
+                        }
+                    }
+                    lastRound[slot] = reader.getRound();
+                    roundGuesses[slot] = 0;
+                    roundStart[slot] = reader.getTimestamp();
+                } else if (slot >= 0 && lastRound[slot] == reader.getRound()) {
+                    roundGuesses[slot]++;
+                    if (reader.getResult() == 0) { // Ordinal de GuessResult.CORRECT
+                        synchronized (this) {
+                            won(key, roundGuesses[slot], Math.max(0, reader.getTimestamp() - roundStart[slot]));
+                        }
+                        roundGuesses[slot] = 0;
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param sessionId Id de um jogo desta execução, incluído no Snapshot, ou -1.
+     * @return Cópia das estatísticas globais, do ranking e do jogo.
+     */
+    public synchronized Snapshot snapshot(long sessionId) {
+        Entry[] top = new Entry[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            top[i] = entry(heap[i]);
+        }
+        Arrays.sort(top, (a, b) -> a.points != b.points ? Long.compare(b.points, a.points)
+                : Integer.compare(a.rank, b.rank));
+        int player = sessionId < 0 ? -1 : index.get(LIVE | sessionId);
+        return new Snapshot(this, top, player < 0 ? null : entry(player));
+    }
+
+    /**
+     * @return Pior caso da busca binária no intervalo, limite das partidas que contam para a sequência.
+     */
+    public int getOptimalGuesses() {
+        return optimalGuesses;
+    }
+
+    private void won(long key, int guessCount, long millis) {
+        rounds++;
+        totalGuesses += guessCount;
+        totalSolveMillis += millis;
+        distribution[Math.min(guessCount, MAX_TRACKED)]++;
+        solveTime.record(millis);
+        recentSum += guessCount - (recentCount == RECENT_WINDOW ? recent[recentNext] : 0);
+        recent[recentNext] = guessCount;
+        recentNext = (recentNext + 1) % RECENT_WINDOW;
+        recentCount = Math.min(recentCount + 1, RECENT_WINDOW);
+
+        int p = player(key);
+        wins[p]++;
+        guesses[p] += guessCount;
+        solveMillis[p] += millis;
+        best[p] = best[p] == 0 ? guessCount : Math.min(best[p], guessCount);
+        ema[p] = wins[p] == 1 ? guessCount : ema[p] + EMA_WEIGHT * (guessCount - ema[p]);
+        streak[p] = guessCount <= optimalGuesses ? streak[p] + 1 : 0;
+        bestStreak[p] = Math.max(bestStreak[p], streak[p]);
+        points[p] += Math.max(1, optimalGuesses + 1 - guessCount);
+        updateRanking(p);
+    }
+
+    private void abandoned(long key) {
+        abandoned++;
+        streak[player(key)] = 0;
+    }
+
+    /**
+     * @return Posição do jogador nos arrays, que crescem caso ele seja novo.
+     */
+    private int player(long key) {
+        int size = index.size();
+        int p = index.getOrAdd(key);
+        if (p < size) {
+            return p;
+        }
+        if (p == keys.length) { // Jogador novo, sem espaço nos arrays
+            int capacity = p * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            wins = Arrays.copyOf(wins, capacity);
+            guesses = Arrays.copyOf(guesses, capacity);
+            solveMillis = Arrays.copyOf(solveMillis, capacity);
+            best = Arrays.copyOf(best, capacity);
+            ema = Arrays.copyOf(ema, capacity);
+            streak = Arrays.copyOf(streak, capacity);
+            bestStreak = Arrays.copyOf(bestStreak, capacity);
+            points = Arrays.copyOf(points, capacity);
+            heapPosition = Arrays.copyOf(heapPosition, capacity);
+        }
+        keys[p] = key;
+        heapPosition[p] = -1;
+        return p;
+    }
+
+    /**
+     *      Os pontos do jogador só aumentaram: dentro do ranking ele só pode descer no min-heap, fora dele só entra no
+     *  lugar da raiz (o pior dos topK).
+     */
+    private void updateRanking(int p) {
+        if (heapPosition[p] >= 0) {
+            siftDown(heapPosition[p]);
+        } else if (heapSize < topK) {
+            place(p, heapSize++);
+            siftUp(heapSize - 1);
+        } else if (worse(heap[0], p)) {
+            heapPosition[heap[0]] = -1;
+            place(p, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return Indica se o jogador a está abaixo do b no ranking (menos pontos, ou os mesmos pontos e chegou depois).
+     */
+    private boolean worse(int a, int b) {
+        return points[a] != points[b] ? points[a] < points[b] : a > b;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!worse(heap[i], heap[parent])) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1, right = left + 1, worst = i;
+            if (left < heapSize && worse(heap[left], heap[worst])) worst = left;
+            if (right < heapSize && worse(heap[right], heap[worst])) worst = right;
+            if (worst == i) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = heap[i];
+        place(heap[j], i);
+        place(a, j);
+    }
+
+    private void place(int p, int i) {
+        heap[i] = p;
+        heapPosition[p] = i;
+    }
+
+    private Entry entry(int p) {
+        return new Entry(p, keys[p], wins[p], guesses[p], solveMillis[p], best[p], ema[p], streak[p], bestStreak[p],
+                points[p]);
+    }
+
+    /**
+     *      Estatísticas de um jogador em um Snapshot.
+     */
+    public static final class Entry {
+        private final int rank; // Ordem em que o jogador apareceu, usada no desempate
+        private final long key;
+        private final int wins, best, streak, bestStreak;
+        private final long guesses, solveMillis, points;
+        private final double recentGuesses;
+
+        Entry(int rank, long key, int wins, long guesses, long solveMillis, int best, double recentGuesses, int streak,
+              int bestStreak, long points) {
+            this.rank = rank;
+            this.key = key;
+            this.wins = wins;
+            this.guesses = guesses;
+            this.solveMillis = solveMillis;
+            this.best = best;
+            this.recentGuesses = recentGuesses;
+            this.streak = streak;
+            this.bestStreak = bestStreak;
+            this.points = points;
+        }
+
+        /**
+         * @return Indica se o jogador é um jogo desta execução.
+         */
+        public boolean isLive() {
+            return (key & LIVE) != 0;
+        }
+
+        /**
+         * @return Id do jogo na execução em que ele jogou.
+         */
+        public long getSessionId() {
+            return key & 0xFFFFFFFFL;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public double getAverageGuesses() {
+            return wins == 0 ? 0 : (double) guesses / wins;
+        }
+
+        public double getAverageSolveMillis() {
+            return wins == 0 ? 0 : (double) solveMillis / wins;
+        }
+
+        public int getBest() {
+            return best;
+        }
+
+        /**
+         * @return Média móvel exponencial dos palpites, que pesa mais as últimas partidas.
+         */
+        public double getRecentGuesses() {
+            return recentGuesses;
+        }
+
+        public int getStreak() {
+            return streak;
+        }
+
+        public int getBestStreak() {
+            return bestStreak;
+        }
+
+        public long getPoints() {
+            return points;
+        }
+    }
+
+    /**
+     *      Cópia das estatísticas em um momento, que pode ser lida por qualquer thread.
+     */
+    public static final class Snapshot {
+        private final long rounds, abandoned;
+        private final double averageGuesses, averageSolveMillis, recentAverage;
+        private final long solveP50, solveP90;
+        private final long[] distribution;
+        private final Entry[] leaderboard;
+        private final Entry player;
+
+        private Snapshot(GameStats stats, Entry[] leaderboard, Entry player) {
+            this.rounds = stats.rounds;
+            this.abandoned = stats.abandoned;
+            this.averageGuesses = stats.rounds == 0 ? 0 : (double) stats.totalGuesses / stats.rounds;
+            this.averageSolveMillis = stats.rounds == 0 ? 0 : (double) stats.totalSolveMillis / stats.rounds;
+            this.recentAverage = stats.recentCount == 0 ? 0 : (double) stats.recentSum / stats.recentCount;
+            this.solveP50 = stats.solveTime.getP50();
+            this.solveP90 = stats.solveTime.getP90();
+            this.distribution = stats.distribution.clone();
+            this.leaderboard = leaderboard;
+            this.player = player;
+        }
+
+        public long getRounds() {
+            return rounds;
+        }
+
+        public long getAbandoned() {
+            return abandoned;
+        }
+
+        public double getAverageGuesses() {
+            return averageGuesses;
+        }
+
+        public double getAverageSolveMillis() {
+            return averageSolveMillis;
+        }
+
+        /**
+         * @return Média de palpites das últimas partidas.
+         */
+        public double getRecentAverage() {
+            return recentAverage;
+        }
+
+        public long getSolveP50() {
+            return solveP50;
+        }
+
+        public long getSolveP90() {
+            return solveP90;
+        }
+
+        /**
+         * @param guessCount Palpites até o acerto, o último valor inclui as partidas com mais palpites.
+         * @return Quantidade de partidas ganhas com esses palpites.
+         */
+        public long getDistribution(int guessCount) {
+            return distribution[Math.min(guessCount, MAX_TRACKED)];
+        }
+
+        /**
+         * @return Ranking, do primeiro ao último.
+         */
+        public Entry[] getLeaderboard() {
+            return leaderboard.clone();
+        }
+
+        /**
+         * @return Estatísticas do jogo pedido no snapshot(), ou null caso ele ainda não tenha vencido.
+         */
+        public Entry getPlayer() {
+            return player;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package stats;
+
+import java.util.Arrays;
+
+/**
+ *      Mapa de chave de jogador (long) para posição nos arrays do GameStats (int), com endereçamento aberto em arrays
+ *  primitivos: sem objetos Long nem entradas por jogador. As posições são dadas em ordem, a partir de 0.
+ */
+final class PlayerIndex {
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] slots; // Posição do jogador, EMPTY em buckets livres
+    private int size;
+
+    PlayerIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * @param key Chave do jogador.
+     * @return Posição do jogador, ou -1 caso ele não exista.
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slots[i];
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * @param key Chave do jogador.
+     * @return Posição do jogador, criada caso ele ainda não exista.
+     */
+    int getOrAdd(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slots[i];
+            }
+        }
+        keys[i] = key;
+        slots[i] = size;
+        if (++size * 2 > keys.length) { // Ocupação máxima de 50%
+            grow();
+        }
+        return size - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        Arrays.fill(slots, EMPTY);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] == EMPTY) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (slots[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Espalha chaves sequenciais (ids de jogo)
+        return (int) (h ^ (h >>> 32));
+    }
+}
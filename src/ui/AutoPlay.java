@@ -0,0 +1,117 @@
+package ui;
+
+import game.AutoPlayer;
+import game.GameClient;
+import game.LoadGenerator;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import utils.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *      Jogadores automáticos com a UI ligada, ativados pela propriedade de sistema guess.autoplay
+ *  (binary|random|mixed). Mede quanto o caminho de desenho (LedDisplay e layout) limita a vazão do jogo.
+ *
+ *      Cada palpite é mostrado no display pela thread do JavaFX, e o jogador só continua depois do pulso seguinte,
+ *  quando o palpite já foi desenhado. Então cada jogador dá no máximo um palpite por frame, e um FX thread lento
+ *  diminui os palpites por segundo. O resultado é escrito no Log (evento load.report) no fim da medição e quando a
+ *  aplicação fecha; com guess.profiler ligado, o tempo de cada palpite fica em fx.task.autoplay.guess.
+ *
+ *  Propriedades: guess.autoplay.players (1), guess.autoplay.seconds (30, 0 joga até a janela fechar) e
+ *  guess.load.warmup (2 s). O primeiro jogador usa o jogo da tela, os demais criam os seus pelo Main.
+ */
+final class AutoPlay {
+    private static final String STRATEGY = System.getProperty("guess.autoplay");
+
+    private static final Queue<CompletableFuture<Void>> waitingFrame = new ConcurrentLinkedQueue<>();
+    private static final List<GameClient> ownClients = new ArrayList<>(); // Jogos criados aqui, fechados no stop()
+    private static final AtomicBoolean reported = new AtomicBoolean();
+    private static LoadGenerator generator;
+    private static AnimationTimer frameTimer;
+
+    private AutoPlay() { // Sem instânciação
+    }
+
+    static boolean isEnabled() {
+        return STRATEGY != null && !STRATEGY.isEmpty();
+    }
+
+    /**
+     *      Começa a jogar. Chamado pelo Controller na thread do JavaFX.
+     * @param controller Controller da tela principal.
+     * @param game Jogo da tela, usado pelo primeiro jogador.
+     */
+    static void start(Controller controller, GameClient game) {
+        AutoPlayer.Strategy strategy = AutoPlayer.Strategy.valueOf(STRATEGY.toUpperCase(Locale.ROOT));
+        int players = Math.max(1, Integer.getInteger("guess.autoplay.players", 1));
+        List<GameClient> clients = new ArrayList<>();
+        clients.add(game);
+        for (int i = 1; i < players; i++) {
+            GameClient client = Main.createGameClient(false); // Removidos por inatividade caso fiquem parados
+            ownClients.add(client);
+            clients.add(client);
+        }
+        frameTimer = new AnimationTimer() { // Libera os jogadores cujo palpite já foi desenhado
+            @Override
+            public void handle(long now) {
+                CompletableFuture<Void> shown;
+                while ((shown = waitingFrame.poll()) != null) {
+                    shown.complete(null);
+                }
+            }
+        };
+        frameTimer.start();
+        AutoPlayer.Observer observer = (guess, result) -> {
+            CompletableFuture<Void> shown = new CompletableFuture<>();
+            FxProfiler.runLater("autoplay.guess", () -> {
+                controller.showGuess(guess, result);
+                waitingFrame.add(shown);
+            });
+            return shown;
+        };
+        generator = new LoadGenerator(clients, strategy, System.nanoTime(), observer);
+        Log.info("autoplay.started", "players", players, "strategy", strategy);
+        generator.run(Long.getLong("guess.load.warmup", 2), Long.getLong("guess.autoplay.seconds", 30),
+                TimeUnit.SECONDS).whenComplete((report, error) -> {
+            if (error != null) {
+                Log.error("autoplay.failed", error);
+            } else if (reported.compareAndSet(false, true)) {
+                report.log();
+            }
+            Platform.runLater(frameTimer::stop);
+        });
+    }
+
+    /**
+     *      Para os jogadores, escreve o resultado caso ele ainda não tenha sido escrito e fecha os jogos criados aqui.
+     *  Chamado pelo Main quando a aplicação fecha.
+     */
+    static void stop() {
+        if (generator == null) {
+            return;
+        }
+        generator.stop();
+        if (reported.compareAndSet(false, true)) {
+            generator.report().log();
+        }
+        for (GameClient client : ownClients) {
+            if (client instanceof Closeable) {
+                try {
+                    ((Closeable) client).close();
+                } catch (IOException e) {
+                    Log.error("autoplay.close", e);
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package ui;
 
-import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -11,26 +12,40 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import utils.HttpNumber;
+import game.GameClient;
+import game.GuessResult;
+import game.LocalGameClient;
+import metrics.Metrics;
+import stats.GameStats;
+import utils.GameConfig;
+import utils.HttpNumberException;
 import utils.LedDisplay;
+import utils.LedHost;
+import utils.Log;
+import utils.TaskScheduler;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  *      A classe Controller controla toda a UI principal, o sistema de dígitos funciona da seguinte forma:
  *
- *  - O método createNewDigits() primeiramente retira todos os dígitos para depois adicionar de acordo com o número.
+ *  - O método createNewDigits() adiciona ou retira dígitos do final até que a quantidade seja igual ao número de
+ *      dígitos do número. Se a quantidade já for a mesma nada é alterado. Não há limite de dígitos: os três dígitos
+ *      do MainScreen.fxml formam um pool que cresce sob demanda com cópias do primeiro dígito, e dígitos retirados
+ *      continuam no pool para serem reutilizados.
  *      Ex: O número 89 criará dois dígitos, o 102 três dígitos.
- *  - O método getSegments(int digitIndex) retorna os segmentos do dígito indicado pelo parâmetro.
+ *  - O método getSegments(int digitIndex) retorna os segmentos do dígito indicado pelo parâmetro. Os segmentos de
+ *      cada dígito são procurados uma única vez no initialize().
  *      Ex: Se digitIndex = 0 e o número for igual a 68, o método retornará os segmentos para formar o número 6,
  *      se digitIndex = 1 retornará os segmentos para formar o número 8.
  *
  */
-public class Controller {
+public class Controller implements LedHost {
     @FXML
     private ColorPicker colorPicker;
     @FXML
@@ -46,12 +61,18 @@ public class Controller {
     @FXML
     private ImageView textSize, textColor;
     @FXML
-    private Label digitCounter, resultLabel;
+    private Label digitCounter, resultLabel, statsLabel;
     @FXML
     private TextField textField;
     @FXML
     private Button sendButton, newRound;
 
+    private final List<VBox> digitBoxes = new ArrayList<>(); // Pool de dígitos, na ordem em que aparecem
+    private final List<List<ImageView>> digitSegments = new ArrayList<>(); // Segmentos de cada dígito
+    private GameClient game; // Jogo desta tela, local ou em um GuessServer
+    private LedDisplay display; // Display de LED desta tela
+    private final GuessInput guessInput = new GuessInput(this::onInput); // Filtro e estado do palpite digitado
+
     /**
      *      Inicializa os Nodes com os estados certos.
      */
@@ -60,7 +81,8 @@ public class Controller {
                 getClass().getClassLoader().getResource("format_size-24px.png")).toExternalForm()); // Coloca imagem
         Image palletImg = new Image(Objects.requireNonNull(
                 getClass().getClassLoader().getResource("palette-24px.png")).toExternalForm()); // Coloca imagem
-        String[] options = {"0.6", "0.7", "0.8", "0.9", "1.0", "1.1"}; // Cria as opções de tamanho
+        List<String> options = new ArrayList<>(); // Cria as opções de tamanho
+        for (double scale : InitialController.SCALES) options.add(String.valueOf(scale));
         comboBox.getItems().setAll(FXCollections.observableArrayList(options)); // Adiciona as opções
         // Remove a comboBox de tamanhos para somente o icone ficar visível
         this.textSizeBox.getChildren().remove(this.comboBox);
@@ -72,73 +94,206 @@ public class Controller {
         this.textColor.setImage(palletImg);
         // Esconde o botão de nova partida
         this.newRound.setVisible(false);
-        waitServer();
+        // Valida cada mudança da caixa de texto antes dela ser aplicada
+        this.textField.setTextFormatter(new TextFormatter<>(guessInput));
+        // Guarda as referências dos segmentos de cada dígito
+        for (VBox digitBox : List.of(firstDigit, secondDigit, thirdDigit)) {
+            addToPool(digitBox);
+        }
+        this.game = Main.getGameClient();
+    }
+
+    /**
+     *      Cria o display de LED desta tela. Chamado pelo Main na thread do JavaFX, depois que a tela e as imagens do
+     *  LedAssets foram carregadas em segundo plano.
+     */
+    public void initDisplay() {
+        this.display = LedDisplay.forHost(this);
     }
 
     /**
-     *      Desativa todos os inputs do usuário até que o número seja adquirido pelo HttpNumber
+     *      Pede a primeira partida. Chamado pelo Main na thread do JavaFX, depois que a tela foi carregada em segundo
+     *  plano e o display foi criado.
      */
-    private void waitServer() {
+    public void startGame() {
+        if (AutoPlay.isEnabled()) { // Partidas jogadas pelo AutoPlayer, sem inputs do usuário
+            disableInput();
+            AutoPlay.start(this, game);
+            return;
+        }
+        waitServer(game.newRound());
+    }
+
+    /**
+     *      Atualiza o texto das estatísticas. O Snapshot é criado e formatado no executor do TaskScheduler, e apenas
+     *  o texto pronto é colocado na tela pela thread do JavaFX, que nunca espera o lock do GameStats. As estatísticas
+     *  são do GameEngine local, então jogando em um GuessServer nada é mostrado.
+     */
+    public void refreshStats() {
+        if (!(game instanceof LocalGameClient)) {
+            return;
+        }
+        long sessionId = ((LocalGameClient) game).getSessionId();
+        CompletableFuture.supplyAsync(() -> formatStats(Main.getStats().snapshot(sessionId), sessionId),
+                TaskScheduler.getExecutor())
+                .thenAccept(text -> FxProfiler.runLater("stats.show", () -> this.statsLabel.setText(text)));
+    }
+
+    private static String formatStats(GameStats.Snapshot snapshot, long sessionId) {
+        if (snapshot.getRounds() == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(String.format("%d partidas, média de %.1f palpites (últimas %.1f), "
+                        + "%.1f s", snapshot.getRounds(), snapshot.getAverageGuesses(), snapshot.getRecentAverage(),
+                snapshot.getAverageSolveMillis() / 1000));
+        GameStats.Entry player = snapshot.getPlayer();
+        if (player != null) {
+            text.append(String.format("%nVocê: %d vitórias, melhor %d, sequência %d (recorde %d), %d pontos",
+                    player.getWins(), player.getBest(), player.getStreak(), player.getBestStreak(),
+                    player.getPoints()));
+        }
+        GameStats.Entry[] leaderboard = snapshot.getLeaderboard();
+        for (int i = 0; i < Math.min(3, leaderboard.length); i++) { // Só os primeiros cabem na tela
+            GameStats.Entry entry = leaderboard[i];
+            String name = entry.isLive() && entry.getSessionId() == sessionId ? "você" : "jogo " + entry.getSessionId();
+            text.append(String.format("%n%dº %s: %d pontos", i + 1, name, entry.getPoints()));
+        }
+        return text.toString();
+    }
+
+    /**
+     *      Mostra um palpite e o seu resultado, como o onSend() e o verifyResult() fazem. Usado pelo AutoPlay, na
+     *  thread do JavaFX.
+     * @param number Palpite.
+     * @param result Resultado do palpite.
+     */
+    public void showGuess(int number, GuessResult result) {
+        display.displayNumber(number, false);
+        this.resultLabel.setText(result.getMessage());
+    }
+
+    /**
+     *      Desativa todos os inputs do usuário até que a nova partida comece. Quando ela começar os inputs são
+     *  reativados na thread do JavaFX, ou o erro é exibido por meio do showError().
+     * @param request Future retornado pelo GameClient.newRound()
+     */
+    private void waitServer(CompletableFuture<HttpNumberException> request) {
+        long start = System.nanoTime();
         this.resultLabel.setText("");
         disableInput();
-        ExecutorService exec = Executors.newSingleThreadExecutor();
-        exec.execute(() -> {
-            // Apaga o número anterior e mostra o 0.
-            Platform.runLater(() -> LedDisplay.displayNumber(0, true));
-            while (HttpNumber.getNumber() == -1) { // Espera até o servidor responder
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+        // Apaga o número anterior e mostra o 0.
+        FxProfiler.runLater("round.clear", () -> display.displayNumber(0, true));
+        request.whenComplete((degraded, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                showError(cause instanceof HttpNumberException ? ((HttpNumberException) cause).getHttpCode() : 0);
+                return;
             }
-            Platform.runLater(this::enableInput);
-            exec.shutdown();
+            FxProfiler.runLater("round.enable", () -> {
+                enableInput();
+                if (degraded != null) { // Número local, servidor com falha
+                    showDegraded(degraded.getHttpCode());
+                }
+                Metrics.ROUND_START.recordSince(start);
+            });
         });
     }
 
     /**
-     *      Tira todos os dígitos para em seguida colocar eles denovo de acordo com o parâmetro
+     *      Adiciona ou retira dígitos do final até que a quantidade de dígitos seja igual ao parâmetro. Os dígitos que
+     *  continuam no display não são retirados, evitando que o JavaFX refaça o layout sem necessidade.
      * @param digitQuantity Número de dígitos a ser colocado
      */
+    @Override
     public void createNewDigits(int digitQuantity) {
-        numberBox.getChildren().clear();
-        if (digitQuantity < 1 || digitQuantity > 3) {
-            throw new IllegalArgumentException("Quantidade de dígitos excedeu o limite");
+        if (digitQuantity < 1) {
+            throw new IllegalArgumentException("Quantidade de dígitos inválida");
+        }
+        while (digitBoxes.size() < digitQuantity) { // Pool pequeno demais, cria um novo dígito
+            addToPool(copyDigit(firstDigit));
+        }
+        ObservableList<Node> digits = numberBox.getChildren();
+        if (digits.size() > digitQuantity) {
+            digits.remove(digitQuantity, digits.size());
+        }
+        for (int i = digits.size(); i < digitQuantity; i++) {
+            digits.add(digitBoxes.get(i));
+        }
+    }
+
+    /**
+     *      Adiciona o dígito ao pool, guardando as referências dos seus segmentos.
+     * @param digitBox VBox do dígito
+     */
+    private void addToPool(VBox digitBox) {
+        List<ImageView> segments = new ArrayList<>();
+        for (Node segment : digitBox.getChildren()) {
+            if (segment instanceof ImageView) segments.add((ImageView) segment);
         }
-        switch (digitQuantity) {
-            case 1:
-                numberBox.getChildren().add(firstDigit);
-                break;
-            case 2:
-                numberBox.getChildren().add(firstDigit);
-                numberBox.getChildren().add(secondDigit);
-                break;
-            case 3:
-                numberBox.getChildren().add(firstDigit);
-                numberBox.getChildren().add(secondDigit);
-                numberBox.getChildren().add(thirdDigit);
-                break;
+        this.digitBoxes.add(digitBox);
+        this.digitSegments.add(Collections.unmodifiableList(segments));
+    }
+
+    /**
+     *      Cria um novo dígito copiando o tamanho e a posição de cada segmento do dígito modelo.
+     * @param model Dígito a ser copiado
+     * @return Novo dígito
+     */
+    private static VBox copyDigit(VBox model) {
+        VBox copy = new VBox();
+        copy.setAlignment(model.getAlignment());
+        copy.setPrefSize(model.getPrefWidth(), model.getPrefHeight());
+        for (Node node : model.getChildren()) {
+            if (!(node instanceof ImageView)) continue;
+            ImageView segment = (ImageView) node;
+            ImageView segmentCopy = new ImageView(segment.getImage());
+            segmentCopy.setFitWidth(segment.getFitWidth());
+            segmentCopy.setFitHeight(segment.getFitHeight());
+            segmentCopy.setPreserveRatio(segment.isPreserveRatio());
+            segmentCopy.setPickOnBounds(segment.isPickOnBounds());
+            segmentCopy.setRotate(segment.getRotate());
+            segmentCopy.setTranslateX(segment.getTranslateX());
+            segmentCopy.setTranslateY(segment.getTranslateY());
+            copy.getChildren().add(segmentCopy);
         }
+        return copy;
     }
 
     /**
-     *      Aumenta o tamanho do display por meio de um aumento na escala no eixo X e no eixo Y
+     *      Aumenta o tamanho do display por meio do LedRenderer em uso
      * @param rate Taxa de aumento de escala, 1 = escala original
      */
 
     public void increaseDigitSize(double rate) {
+        FxProfiler.measure("led.scale", () -> display.setScale(rate));
+    }
+
+    /**
+     *      Aumenta o tamanho dos dígitos por meio de um aumento na escala no eixo X e no eixo Y
+     * @param rate Taxa de aumento de escala, 1 = escala original
+     */
+    @Override
+    public void scaleNumberBox(double rate) {
         this.numberBox.setScaleX(rate);
         this.numberBox.setScaleY(rate);
     }
 
+    /**
+     *      Troca os dígitos de ImageView's pelo Canvas onde o CanvasRenderer desenha o display
+     * @param canvas Canvas do display
+     */
+    @Override
+    public void showCanvas(Canvas canvas) {
+        this.numberBox.getChildren().setAll(canvas);
+    }
+
     /**
      *  Permite que o usuário dê input
      */
     private void enableInput() {
         this.textField.setDisable(false);
-        this.sendButton.setDisable(false);
-        this.digitCounter.setText("0/3");
+        this.sendButton.setDisable(guessInput.getStatus() != GuessInput.Status.VALID);
+        this.digitCounter.setText("0/" + GameConfig.getMaxDigits());
     }
 
     /**
@@ -146,71 +301,86 @@ public class Controller {
      */
 
     private void disableInput() {
+        this.textField.setText(""); // Antes de desativar, pois o onInput() mexe no botão e no contador
         this.textField.setDisable(true);
         this.sendButton.setDisable(true);
         this.digitCounter.setText("");
-        this.textField.setText("");
     }
 
     /**
-     *      Verifica se o palpite do usuário é maior, menor ou igual ao número retornado pelo HttpNumber
+     *      Verifica pelo GameClient se o palpite do usuário é maior, menor ou igual ao número da partida. Com um
+     *  servidor remoto a resposta pode demorar, então o resultado é mostrado na thread do JavaFX quando chegar.
      * @param number Palpite do usuário
      */
     private void verifyResult(int number) {
-        int answer = HttpNumber.getNumber();
-        if (number == answer) {
-            this.resultLabel.setText("Acertou!");
-            this.newRound.setVisible(true);
-            disableInput();
-        } else if (number > answer) {
-            this.resultLabel.setText("É menor");
-        } else {
-            this.resultLabel.setText("É maior");
-        }
+        game.guess(number).whenComplete((result, error) -> {
+            if (error != null) {
+                showError(0);
+                return;
+            }
+            FxProfiler.runLater("guess.result", () -> {
+                this.resultLabel.setText(result.getMessage());
+                if (result == GuessResult.CORRECT) {
+                    refreshStats();
+                    this.newRound.setVisible(true);
+                    disableInput();
+                }
+            });
+        });
     }
 
     /**
-     *      Chamado sempre que o HttpNumber identificar um código de erro
+     *      Chamado sempre que o número de uma nova partida não puder ser obtido pela NumberSource. Falhas sem código (0)
+     *  são mostradas como "Err".
      * @param httpCode Código http
      */
     public void showError(int httpCode) {
-        Platform.runLater(() -> {
+        FxProfiler.runLater("round.error", () -> {
             this.resultLabel.setText("Erro");
             this.newRound.setVisible(true);
-            LedDisplay.displayNumber(httpCode, true);
+            if (httpCode > 0) {
+                display.displayNumber(httpCode, true);
+            } else {
+                display.displayText("Err");
+            }
             disableInput();
         });
     }
 
+    /**
+     *      Chamado quando a partida começou com um número da fonte reserva porque o servidor de números falhou. A
+     *  partida continua normalmente, mas o código do erro (ou "sem resposta" para falhas sem código) aparece no lugar
+     *  do resultado até o primeiro palpite, como aviso de que os números não vêm do servidor.
+     * @param httpCode Código http
+     */
+    private void showDegraded(int httpCode) {
+        this.resultLabel.setText(httpCode > 0 ? "Servidor com erro " + httpCode + ", número local"
+                : "Servidor sem resposta, número local");
+    }
+
     /**
      *      Retorna os segmentos para o dígito indicado no parâmetro
      * @param digitIndex Índice do dígito
      * @return Segmentos do dígito indicado
      */
+    @Override
     public List<ImageView> getSegments(int digitIndex) {
-        VBox currentDigitBox = (VBox) numberBox.getChildren().get(digitIndex); // pega a VBox contendo o dígito...
-        // indicado pelo parâmetro
-        List<ImageView> segments = new ArrayList<>();
-        for (Node segment : currentDigitBox.getChildren()) {
-            if (segment instanceof ImageView) segments.add((ImageView) segment);
-        }
-        return segments;
+        return digitSegments.get(digitIndex);
     }
 
     /**
-     *      Chamado sempre que o botão enviar for clicado, esse método tenta invocar parseInt(), se não conseguir
-     *  significa que o input fornecido pelo usuário é inválido. Em seguida verifica o palpite.
+     *      Chamado sempre que o botão enviar for clicado, esse método usa o número já analisado pelo GuessInput, sem
+     *  analisar o texto de novo. O botão só fica ativo com um palpite válido. Em seguida verifica o palpite.
      */
     @FXML
     private void onSend() {
-        int number;
-        try {
-            number = Integer.parseInt(textField.getText());
-            verifyResult(number); // Verifíca o resultado
-            LedDisplay.displayNumber(number, false);
-        } catch (NumberFormatException e) {
-            System.out.println("Número inválido");
+        if (guessInput.getStatus() != GuessInput.Status.VALID) {
+            Log.warn("input.invalid", "text", textField.getText());
+            return;
         }
+        int number = guessInput.getValue();
+        verifyResult(number); // Verifíca o resultado
+        display.displayNumber(number, false);
     }
 
     /**
@@ -220,44 +390,24 @@ public class Controller {
     @FXML
     private void onNewRound() {
         this.newRound.setVisible(false);
-        HttpNumber.request();
-        waitServer();
+        waitServer(game.newRound());
     }
 
     /**
-     *      É chamado sempre quando o usuário selecionar a caixa de texto e soltar uma tecla. Esse método valida
-     *  o input do usuário e bloqueia o botão de enviar caso o input seja inválido. Achei que seria uma boa
-     *  implementação desativar o botão de enviar e mostrar "Número inválido" quando o usuário digitar um número fora
-     *  dos limites impostos (1 >= x <= 300).
+     *      Chamado pelo GuessInput a cada mudança da caixa de texto. Achei que seria uma boa implementação desativar o
+     *  botão de enviar enquanto o palpite não estiver completo, e mostrar "Número inválido" quando o usuário digitar
+     *  algo que não pode virar um número dentro dos limites impostos pelo GameConfig (a tecla é rejeitada e a caixa
+     *  continua com o texto anterior).
+     * @param status Estado do texto, INVALID caso a mudança tenha sido rejeitada
+     * @param length Quantidade de caracteres na caixa de texto
      */
-    @FXML
-    private void onKeyReleased() {
-        String number;
-        try {
-            Integer.parseInt(textField.getText()); // Tenta dar parse para verificar se é um número inteiro
-            number = textField.getText();
-            if (Integer.parseInt(number) < 1 || Integer.parseInt(number) > 300) { // Número fora dos limites
-                this.digitCounter.setText("Número inválido");
-                this.sendButton.setDisable(true);
-                return;
-            }
-            if (number.length() > 3) { // Número tem muitos dígitos
-                this.digitCounter.setText("Número inválido");
-                this.sendButton.setDisable(true);
-            } else { // Número válido
-                this.digitCounter.setText(number.length() + "/3");
-                this.sendButton.setDisable(false);
-
-            }
-        } catch (NumberFormatException e) { // Não é um número
-            if (this.textField.getText().isEmpty()) { // Caixa de texto vazia
-                this.sendButton.setDisable(false);
-                this.digitCounter.setText("0/3");
-            } else { // Input totalmente inválido
-                this.sendButton.setDisable(true);
-                this.digitCounter.setText("Número Inválido");
-            }
+    private void onInput(GuessInput.Status status, int length) {
+        if (status == GuessInput.Status.INVALID) { // Número fora dos limites, com muitos dígitos ou não numérico
+            this.digitCounter.setText("Número inválido");
+            return;
         }
+        this.digitCounter.setText(length + "/" + GameConfig.getMaxDigits());
+        this.sendButton.setDisable(status != GuessInput.Status.VALID); // Vazio ou incompleto
     }
 
     /**
@@ -291,7 +441,7 @@ public class Controller {
     @FXML
     private void onColorPicker(){
         Color newColor = this.colorPicker.getValue();
-        LedDisplay.changeColor(newColor);
+        display.changeColor(newColor);
         this.colorBox.getChildren().remove(this.colorPicker);
         this.colorBox.getChildren().add(this.textColor);
     }
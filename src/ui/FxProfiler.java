@@ -0,0 +1,218 @@
+package ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.stage.Popup;
+import javafx.stage.Stage;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import utils.Log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *      Profiler da thread do JavaFX, ligado pela propriedade de sistema guess.profiler:
+ *
+ *  - overlay: mostra no canto da janela o fps, os tempos de frame (p50/p99), as invalidações de layout por frame e a
+ *      tarefa mais lenta, atualizado duas vezes por segundo.
+ *  - capture: nada aparece na tela, os mesmos dados vão para os histogramas do Metrics (JMX e escrita periódica) e um
+ *      resumo é escrito no Log quando a aplicação fecha. Serve para medir os quiosques sem mudar o que o usuário vê.
+ *  - off (padrão): nada é medido, runLater() e measure() apenas executam a tarefa.
+ *
+ *  Os dados coletados são:
+ *  - fx.frame: intervalo entre dois pulsos, medido por um AnimationTimer (us).
+ *  - fx.layout: tempo de layout de cada pulso, entre os listeners de pré e pós layout da Scene (us).
+ *  - fx.invalidations: quantidade de Parents que pediram um novo layout em cada pulso em que algum pediu.
+ *  - fx.task.<nome>: tempo de cada tarefa enviada por runLater() ou medida por measure() (us).
+ */
+public final class FxProfiler {
+    private static final String MODE = System.getProperty("guess.profiler", "off");
+    private static final boolean ENABLED = "overlay".equals(MODE) || "capture".equals(MODE);
+    private static final long OVERLAY_PERIOD = 500_000_000; // Atualização do overlay em nanossegundos
+
+    private static final LatencyHistogram FRAMES = new LatencyHistogram("fx.frame", "us");
+    private static final LatencyHistogram LAYOUT = new LatencyHistogram("fx.layout", "us");
+    private static final LatencyHistogram INVALIDATIONS = new LatencyHistogram("fx.invalidations", "parents");
+    private static final Map<String, LatencyHistogram> tasks = new ConcurrentHashMap<>();
+
+    // Usados apenas na thread do JavaFX
+    private static int invalidations; // Invalidações desde o último pulso
+    private static long layoutStart;
+    private static final ChangeListener<Boolean> invalidationCounter = (observable, wasDirty, dirty) -> {
+        if (dirty) invalidations++;
+    };
+
+    private FxProfiler() { // Sem instânciação
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     *      Começa a medir a janela. Não faz nada caso o profiler esteja desligado.
+     * @param stage Janela principal, já com a Scene.
+     */
+    public static void install(Stage stage) {
+        if (!ENABLED) {
+            return;
+        }
+        for (LatencyHistogram histogram : new LatencyHistogram[]{FRAMES, LAYOUT, INVALIDATIONS}) {
+            Metrics.register(histogram);
+        }
+        Scene scene = stage.getScene();
+        watch(scene.getRoot());
+        scene.rootProperty().addListener((observable, oldRoot, newRoot) -> watch(newRoot)); // Troca de tela
+        scene.addPreLayoutPulseListener(() -> layoutStart = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            LAYOUT.recordSince(layoutStart);
+            if (invalidations > 0) {
+                INVALIDATIONS.record(invalidations);
+                invalidations = 0;
+            }
+        });
+        Label overlay = "overlay".equals(MODE) ? createOverlay(stage) : null;
+        new AnimationTimer() {
+            private long lastFrame, lastOverlay;
+
+            @Override
+            public void handle(long now) {
+                if (lastFrame > 0) {
+                    FRAMES.record((now - lastFrame) / 1000);
+                }
+                lastFrame = now;
+                if (overlay != null && now - lastOverlay >= OVERLAY_PERIOD) {
+                    lastOverlay = now;
+                    overlay.setText(summary());
+                }
+            }
+        }.start();
+        Log.info("profiler.started", "mode", MODE);
+    }
+
+    /**
+     *      Envia a tarefa para a thread do JavaFX, medindo o tempo de execução caso o profiler esteja ligado.
+     * @param task Nome da tarefa, ex: led.redraw.
+     * @param runnable Tarefa.
+     */
+    public static void runLater(String task, Runnable runnable) {
+        if (!ENABLED) {
+            Platform.runLater(runnable);
+            return;
+        }
+        Platform.runLater(() -> measure(task, runnable));
+    }
+
+    /**
+     *      Executa a tarefa na thread atual, medindo o tempo de execução caso o profiler esteja ligado.
+     * @param task Nome da tarefa, ex: led.scale.
+     * @param runnable Tarefa.
+     */
+    public static void measure(String task, Runnable runnable) {
+        if (!ENABLED) {
+            runnable.run();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            taskHistogram(task).recordSince(start);
+        }
+    }
+
+    /**
+     *      Escreve no Log um resumo de todos os histogramas do profiler, chamado quando a aplicação fecha.
+     */
+    public static void report() {
+        if (!ENABLED) {
+            return;
+        }
+        Log.info("profiler.frames", "count", FRAMES.getCount(), "p50", FRAMES.getP50(), "p99", FRAMES.getP99(),
+                "max", FRAMES.getMax());
+        Log.info("profiler.layout", "count", LAYOUT.getCount(), "p50", LAYOUT.getP50(), "p99", LAYOUT.getP99(),
+                "invalidationsP50", INVALIDATIONS.getP50(), "invalidationsP99", INVALIDATIONS.getP99());
+        for (LatencyHistogram histogram : tasks.values()) {
+            Log.info("profiler.task", "name", histogram.getName(), "count", histogram.getCount(),
+                    "p50", histogram.getP50(), "p99", histogram.getP99(), "max", histogram.getMax());
+        }
+    }
+
+    private static LatencyHistogram taskHistogram(String task) {
+        LatencyHistogram histogram = tasks.get(task);
+        if (histogram == null) { // Primeira execução da tarefa
+            histogram = tasks.computeIfAbsent(task,
+                    name -> Metrics.register(new LatencyHistogram("fx.task." + name, "us")));
+        }
+        return histogram;
+    }
+
+    /**
+     *      Conta as invalidações de layout do Parent e de todos os seus descendentes, inclusive os adicionados depois
+     *  (ex: dígitos criados pelo Controller.createNewDigits()).
+     */
+    private static void watch(Node node) {
+        if (!(node instanceof Parent) || node.getProperties().containsKey(FxProfiler.class)) {
+            return;
+        }
+        Parent parent = (Parent) node;
+        parent.getProperties().put(FxProfiler.class, Boolean.TRUE); // Já observado
+        parent.needsLayoutProperty().addListener(invalidationCounter);
+        parent.getChildrenUnmodifiable().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                for (Node added : change.getAddedSubList()) {
+                    watch(added);
+                }
+            }
+        });
+        for (Node child : parent.getChildrenUnmodifiable()) {
+            watch(child);
+        }
+    }
+
+    /**
+     *      O overlay fica em um Popup, fora da Scene medida, para que a sua atualização não cause layout nela.
+     */
+    private static Label createOverlay(Stage stage) {
+        Label label = new Label();
+        label.setStyle("-fx-background-color: rgba(0,0,0,0.7); -fx-text-fill: #7CFC00; -fx-font-family: monospace;"
+                + " -fx-font-size: 10px; -fx-padding: 4px;");
+        label.setMouseTransparent(true);
+        Popup popup = new Popup();
+        popup.getContent().add(label);
+        Runnable place = () -> {
+            popup.setX(stage.getX() + 8);
+            popup.setY(stage.getY() + 32);
+        };
+        stage.xProperty().addListener(observable -> place.run());
+        stage.yProperty().addListener(observable -> place.run());
+        stage.setOnShown(event -> {
+            place.run();
+            popup.show(stage);
+        });
+        return label;
+    }
+
+    private static String summary() {
+        long p50 = FRAMES.getP50();
+        String slowest = "-";
+        long slowestP99 = 0;
+        for (LatencyHistogram histogram : tasks.values()) {
+            if (histogram.getP99() > slowestP99) {
+                slowestP99 = histogram.getP99();
+                slowest = histogram.getName().substring("fx.task.".length());
+            }
+        }
+        return String.format("fps %.0f  frame p50 %.1f ms  p99 %.1f ms%nlayout p99 %.2f ms  invalid. p99 %d%n"
+                        + "slowest task %s p99 %.2f ms",
+                p50 > 0 ? 1e6 / p50 : 0.0, p50 / 1000.0, FRAMES.getP99() / 1000.0, LAYOUT.getP99() / 1000.0,
+                INVALIDATIONS.getP99(), slowest, slowestP99 / 1000.0);
+    }
+}
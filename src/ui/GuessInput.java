@@ -0,0 +1,169 @@
+package ui;
+
+import javafx.scene.control.TextFormatter;
+import utils.GameConfig;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ *      Validação do texto digitado como palpite, separada do Controller para poder ser usada (e medida) sem a UI.
+ *
+ *      O parse() percorre o texto uma única vez, sem exceções nem objetos, e devolve o estado e o número juntos em um
+ *  long. Além do número completo ele reconhece os prefixos: um texto que ainda não é um palpite válido, mas pode virar
+ *  um com mais dígitos (ex: "1" com o intervalo 100 - 300), é PARTIAL.
+ *
+ *      Uma instância é o filtro do TextFormatter do campo de texto: cada mudança é analisada antes de ser aplicada e as
+ *  que deixariam o texto INVALID são rejeitadas, então o campo só contém palpites válidos ou os seus prefixos. O
+ *  último número válido fica guardado para o envio, que não precisa analisar o texto de novo. O intervalo vem do
+ *  GameConfig.
+ */
+public final class GuessInput implements UnaryOperator<TextFormatter.Change> {
+    public enum Status {EMPTY, PARTIAL, VALID, INVALID}
+
+    /**
+     *      Recebe o estado do campo depois de cada mudança de texto, na thread do JavaFX.
+     */
+    public interface Listener {
+        /**
+         * @param status Estado do novo texto, ou INVALID caso a mudança tenha sido rejeitada.
+         * @param length Quantidade de caracteres no campo.
+         */
+        void onInput(Status status, int length);
+    }
+
+    private static final Status[] STATUSES = Status.values();
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L};
+
+    private final Listener listener;
+    private Status status = Status.EMPTY; // Estado do texto atual do campo
+    private int value; // Número do texto atual, válido apenas no estado VALID
+    private int length; // Caracteres do texto atual
+
+    /**
+     * @param listener Recebe o estado do campo depois de cada mudança.
+     */
+    public GuessInput(Listener listener) {
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     *      Analisa o texto que o campo terá depois da mudança, rejeitando a mudança caso ele seja INVALID.
+     * @param change Mudança pedida pelo TextField.
+     * @return A própria mudança, ou null para rejeitá-la.
+     */
+    @Override
+    public TextFormatter.Change apply(TextFormatter.Change change) {
+        if (!change.isContentChange()) {
+            return change;
+        }
+        String text = change.getControlNewText();
+        long parsed = parse(text);
+        Status newStatus = status(parsed);
+        if (newStatus == Status.INVALID) { // O campo continua com o texto anterior
+            listener.onInput(Status.INVALID, length);
+            return null;
+        }
+        this.status = newStatus;
+        this.value = value(parsed);
+        this.length = text.length();
+        listener.onInput(newStatus, length);
+        return change;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Palpite digitado, válido apenas quando getStatus() == VALID.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     *      Verifica o texto. Ver parse().
+     * @param text Texto digitado.
+     * @return Estado do texto.
+     */
+    public static Status check(CharSequence text) {
+        return status(parse(text));
+    }
+
+    /**
+     *      Verifica, em uma única passada, se o texto é um número inteiro dentro dos limites do GameConfig com no máximo
+     *  GameConfig.getMaxDigits() caracteres. São aceitos apenas dígitos e, caso o intervalo tenha números negativos,
+     *  um sinal de menos no início.
+     * @param text Texto digitado.
+     * @return Estado e número do texto, lidos por status() e value(). EMPTY para texto vazio, VALID para um palpite
+     *  válido, PARTIAL para um prefixo de palpite válido, INVALID para os demais.
+     */
+    public static long parse(CharSequence text) {
+        return parse(text, GameConfig.getMin(), GameConfig.getMax(), GameConfig.getMaxDigits());
+    }
+
+    /**
+     *      Mesmo que parse(text), com os limites recebidos em vez dos do GameConfig.
+     * @param text Texto digitado.
+     * @param min Menor palpite válido.
+     * @param max Maior palpite válido.
+     * @param maxDigits Quantidade máxima de caracteres, contando o sinal de menos.
+     * @return Estado e número do texto.
+     */
+    static long parse(CharSequence text, int min, int max, int maxDigits) {
+        int length = text.length();
+        if (length == 0) {
+            return pack(Status.EMPTY, 0);
+        }
+        if (length > maxDigits) { // Muitos dígitos, também evita o overflow
+            return pack(Status.INVALID, 0);
+        }
+        boolean negative = text.charAt(0) == '-';
+        long magnitude = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') { // Não é um número
+                return pack(Status.INVALID, 0);
+            }
+            magnitude = magnitude * 10 + (c - '0');
+        }
+        if (negative && length == 1) { // Apenas o sinal
+            return pack(min < 0 ? Status.PARTIAL : Status.INVALID, 0);
+        }
+        long number = negative ? -magnitude : magnitude;
+        if (number >= min && number <= max) {
+            return pack(Status.VALID, (int) number);
+        }
+        // Com k dígitos a mais o número fica entre magnitude * 10^k e magnitude * 10^k + 10^k - 1
+        for (int extra = 1; length + extra <= maxDigits; extra++) {
+            long low = magnitude * POWERS_OF_TEN[extra];
+            long high = low + POWERS_OF_TEN[extra] - 1;
+            if (negative ? -low >= min && -high <= max : high >= min && low <= max) {
+                return pack(Status.PARTIAL, 0);
+            }
+        }
+        return pack(Status.INVALID, 0); // Número fora dos limites
+    }
+
+    /**
+     * @param parsed Resultado do parse().
+     * @return Estado do texto.
+     */
+    public static Status status(long parsed) {
+        return STATUSES[(int) (parsed >>> 32)];
+    }
+
+    /**
+     * @param parsed Resultado do parse().
+     * @return Número do texto, válido apenas no estado VALID.
+     */
+    public static int value(long parsed) {
+        return (int) parsed;
+    }
+
+    private static long pack(Status status, int number) {
+        return (long) status.ordinal() << 32 | (number & 0xFFFFFFFFL);
+    }
+}
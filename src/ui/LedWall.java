@@ -0,0 +1,153 @@
+package ui;
+
+import game.GameEngine;
+import game.GuessResult;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.ScrollPane;
+import javafx.stage.Stage;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import utils.GameConfig;
+import utils.LedDisplay;
+import utils.Log;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *      Tela de operação com um display de LED por jogo do GameEngine local, ativada pela propriedade de sistema
+ *  guess.wall (quantidade de displays). Cada display mostra o último palpite do seu jogo.
+ *
+ *      Os palpites chegam pelo GameEngine.Listener na thread de cada jogador, que apenas guarda o número e marca o
+ *  display como sujo em um conjunto de bits. Um único AnimationTimer, uma vez por pulso, desenha somente os displays
+ *  marcados desde o pulso anterior; vários palpites do mesmo jogo no mesmo frame resultam em um único desenho.
+ *
+ *      Todos os displays desenham em áreas de um único Canvas, com as mesmas imagens pré-rasterizadas do LedAssets, então
+ *  a tela tem um Node só para o JavaFX, sem layout por display, e cada pulso envia ao Canvas apenas os dígitos que
+ *  mudaram. O jogo com id n usa o display (n - 1) % guess.wall; com mais jogos que displays, o mais recente ocupa o
+ *  display.
+ *
+ *  Propriedades: guess.wall (0, desligado) e guess.wall.scale (0.25). Os histogramas wall.pulse (us) e wall.updates
+ *  (displays desenhados por pulso) ficam no Metrics, e um resumo é escrito no Log quando a aplicação fecha.
+ */
+final class LedWall implements GameEngine.Listener {
+    private static final int DISPLAYS = Math.max(0, Integer.getInteger("guess.wall", 0));
+    private static final double SCALE = Double.parseDouble(System.getProperty("guess.wall.scale", "0.25"));
+    private static final double GAP = 8; // Espaço entre displays, em pixels
+    private static final double ASPECT_RATIO = 16.0 / 9; // Proporção aproximada da grade
+
+    private static final LatencyHistogram PULSE = new LatencyHistogram("wall.pulse", "us");
+    private static final LatencyHistogram UPDATES = new LatencyHistogram("wall.updates", "displays");
+    private static LedWall wall;
+
+    private final GameEngine engine;
+    private final LedDisplay[] displays;
+    private final AtomicIntegerArray numbers; // Último palpite de cada display
+    private final AtomicLongArray dirty; // Bit i marca o display i para o próximo pulso
+    private final AnimationTimer pulse;
+    private final Stage stage;
+
+    private LedWall(GameEngine engine, int displayCount) {
+        this.engine = engine;
+        this.displays = new LedDisplay[displayCount];
+        this.numbers = new AtomicIntegerArray(displayCount);
+        this.dirty = new AtomicLongArray((displayCount + 63) >>> 6);
+
+        double width = Math.ceil(GameConfig.getMaxDigits() * LedDisplay.getDigitWidth(SCALE)) + GAP;
+        double height = Math.ceil(LedDisplay.getDigitHeight(SCALE)) + GAP;
+        int columns = (int) Math.min(displayCount, Math.ceil(Math.sqrt(displayCount * ASPECT_RATIO * height / width)));
+        int rows = (displayCount + columns - 1) / columns;
+        Canvas canvas = new Canvas(columns * width, rows * height);
+        for (int i = 0; i < displayCount; i++) {
+            displays[i] = LedDisplay.inCanvas(canvas, (i % columns) * width, (i / columns) * height, SCALE);
+            displays[i].displayText("-"); // Sem jogo
+        }
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flush();
+            }
+        };
+        this.stage = new Stage();
+        stage.setTitle("Jogos");
+        stage.setScene(new Scene(new ScrollPane(canvas)));
+    }
+
+    static boolean isEnabled() {
+        return DISPLAYS > 0;
+    }
+
+    /**
+     *      Abre a tela e passa a receber os palpites do motor. Chamado pelo Main na thread do JavaFX.
+     * @param engine Motor cujos jogos são mostrados.
+     */
+    static void open(GameEngine engine) {
+        Metrics.register(PULSE);
+        Metrics.register(UPDATES);
+        wall = new LedWall(engine, DISPLAYS);
+        engine.setListener(wall);
+        wall.pulse.start();
+        wall.stage.show();
+        Log.info("wall.opened", "displays", DISPLAYS, "scale", SCALE);
+    }
+
+    /**
+     *      Para de receber os palpites e escreve o resumo dos pulsos no Log. Chamado pelo Main quando a aplicação fecha.
+     */
+    static void close() {
+        if (wall == null) {
+            return;
+        }
+        wall.engine.setListener(GameEngine.Listener.NONE);
+        wall.pulse.stop();
+        Log.info("wall.report", "pulses", PULSE.getCount(), "p50", PULSE.getP50(), "p99", PULSE.getP99(),
+                "max", PULSE.getMax(), "updatesP50", UPDATES.getP50(), "updatesMax", UPDATES.getMax());
+    }
+
+    /**
+     *      Guarda o palpite e marca o display do jogo. Chamado na thread do jogador, sem locks: se o display já estava
+     *  marcado o pulso apenas lê o número mais novo.
+     */
+    @Override
+    public void onGuess(long sessionId, int guess, GuessResult result) {
+        if (!GameConfig.isInRange(guess)) { // Não cabe na área do display
+            return;
+        }
+        int slot = Math.floorMod(sessionId - 1, displays.length);
+        numbers.set(slot, guess);
+        int word = slot >>> 6;
+        long bit = 1L << slot; // O deslocamento usa apenas os 6 bits menores
+        long marked;
+        do {
+            marked = dirty.get(word);
+            if ((marked & bit) != 0) {
+                return;
+            }
+        } while (!dirty.compareAndSet(word, marked, marked | bit));
+    }
+
+    /**
+     *      Desenha os displays marcados desde o último pulso. Cada palavra do conjunto é zerada antes da leitura dos
+     *  números, então um palpite que chegar durante o desenho marca o display de novo para o próximo pulso.
+     */
+    private void flush() {
+        long start = System.nanoTime();
+        int updated = 0;
+        for (int word = 0; word < dirty.length(); word++) {
+            if (dirty.get(word) == 0) continue; // Evita a escrita em palavras sem marcas
+            long marked = dirty.getAndSet(word, 0);
+            while (marked != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(marked);
+                marked &= marked - 1; // Retira o bit do display
+                displays[slot].displayNumber(numbers.get(slot), true);
+                updated++;
+            }
+        }
+        if (updated > 0) {
+            UPDATES.record(updated);
+            PULSE.recordSince(start);
+        }
+    }
+}
@@ -1,18 +1,45 @@
 package ui;
 
+import game.GameClient;
+import game.GameEngine;
+import game.LocalGameClient;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import utils.HttpNumber;
-import utils.LedDisplay;
+import journal.RoundJournal;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import net.RemoteGameClient;
+import stats.GameStats;
+import utils.GameConfig;
+import utils.Log;
+import utils.NumberSource;
+import utils.LedAssets;
+import utils.TaskScheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class Main extends Application {
+    private static final NumberSource numberSource = NumberSource.fromConfig(); // Escolhida por guess.numbers
+    private static final RoundJournal journal = RoundJournal.fromConfig(); // Ligado por guess.journal
+    private static final GameStats stats = new GameStats(GameConfig.getMin(), GameConfig.getMax(),
+            Integer.getInteger("guess.stats.topK", 10)); // Estatísticas e ranking das partidas locais
+    private static final GameEngine engine = new GameEngine(numberSource, journal, stats); // Regras do jogo
+    private static GameClient gameClient;
     private static Controller controller;
     private static Stage mainStage;
     private static Parent mainRoot;
     private static Scene mainScene;
+    private static final CompletableFuture<Void> ready = new CompletableFuture<>(); // Tela principal pronta
     /**
      Nessa implementação estarei utilizando o JavaFX (uma API oficial criada pela Oracle para
      substituir a antiga biblioteca Swing), juntamente com uma ferramenta para agilizar o processo de
@@ -21,33 +48,175 @@ public class Main extends Application {
 
      Estou utilizando um tamanho de 667x375, esses valores são baseados na tela de um Iphone6
      segundo o Device Mode do Google Chrome.
+
+     Somente a tela inicial é montada antes do show(). A tela principal (MainScreen.fxml), as imagens do LedAssets
+     e a primeira conexão com o servidor de números são preparadas em paralelo em segundo plano, e a primeira partida
+     começa quando as duas primeiras terminarem. O tempo de cada fase fica nos histogramas startup.* do Metrics.
      */
     @Override
     public void start(Stage primaryStage) throws Exception{
+        long start = System.nanoTime();
         mainStage = primaryStage;
+        Metrics.initialize();
+        gameClient = createGameClient(true);
+        engine.startIdleEvictionFromConfig(); // Jogos dos jogadores automáticos parados, por exemplo
+        // A tela principal, as imagens e a conexão são preparadas em segundo plano enquanto a tela inicial é exibida
+        CompletableFuture<FXMLLoader> mainScreen = CompletableFuture.supplyAsync(() -> {
+            FXMLLoader loader = loadMainScreen();
+            phase("mainScreen", start);
+            return loader;
+        }, TaskScheduler.getExecutor());
+        CompletableFuture<Void> images = CompletableFuture.runAsync(() -> {
+            LedAssets.get();
+            phase("images", start);
+        }, TaskScheduler.getExecutor());
+        if (gameClient instanceof LocalGameClient) { // Conexão com o servidor de números aberta antes da partida
+            numberSource.warmUp();
+        }
+        if (journal != null) { // Estatísticas das execuções anteriores, lidas do registro de partidas
+            TaskScheduler.executeBlocking(Main::rebuildStats);
+        }
+
         FXMLLoader initialScreenLoader = new FXMLLoader();
         initialScreenLoader.setLocation(getClass().getClassLoader().getResource("InitialScreen.fxml"));
         Parent initialRoot = initialScreenLoader.load();
-
-        // ==========================================================================================//
-        FXMLLoader mainScreenLoader = new FXMLLoader();
-        mainScreenLoader.setLocation(getClass().getClassLoader().getResource("MainScreen.fxml"));
-        mainRoot = mainScreenLoader.load();
         mainScene = new Scene(initialRoot, 375, 667 );
         mainStage.setTitle("");
         mainStage.setScene(mainScene);
-        controller = mainScreenLoader.getController();
-
-        LedDisplay.initialize();
-        HttpNumber.request();
+        FxProfiler.install(mainStage);
         mainStage.show();
+        phase("initialScreen", start);
+        new AnimationTimer() { // Primeiro pulso após o show(), a tela inicial já está visível
+            @Override
+            public void handle(long now) {
+                stop();
+                phase("firstFrame", start);
+                Log.info("startup.firstFrame", "jvmUptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+            }
+        }.start();
+
+        // ==========================================================================================//
+        // Quando a tela principal e as imagens estiverem prontas a partida começa na thread do JavaFX
+        CompletableFuture<FXMLLoader> loaded = mainScreen.thenCombine(images, (loader, ignored) -> loader);
+        loaded.whenComplete((loader, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Log.error("startup.failed", error);
+                ready.completeExceptionally(error);
+                Platform.exit();
+                return;
+            }
+            mainRoot = loader.getRoot();
+            controller = loader.getController();
+            controller.initDisplay();
+            controller.startGame();
+            if (LedWall.isEnabled()) { // Tela de operação com os jogos do motor local
+                LedWall.open(engine);
+            }
+            phase("ready", start);
+            ready.complete(null);
+        }));
+    }
+
+    /**
+     *      Soma o histórico do RoundJournal às estatísticas e atualiza a tela quando ela estiver pronta.
+     */
+    private static void rebuildStats() {
+        long start = System.nanoTime();
+        try {
+            long rounds = stats.rebuild(journal.history());
+            Log.info("stats.rebuilt", "rounds", rounds, "ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            ready.thenRun(() -> controller.refreshStats());
+        } catch (IOException e) {
+            Log.error("stats.rebuild", e);
+        }
+    }
+
+    /**
+     *      Carrega a tela principal. Executado fora da thread do JavaFX, o que é permitido enquanto os Nodes ainda
+     *  não fazem parte de uma Scene.
+     */
+    private static FXMLLoader loadMainScreen() {
+        FXMLLoader loader = new FXMLLoader();
+        loader.setClassLoader(Main.class.getClassLoader()); // O class loader de contexto das threads pode ser outro
+        loader.setLocation(Main.class.getClassLoader().getResource("MainScreen.fxml"));
+        try {
+            loader.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return loader;
+    }
+
+    /**
+     *      Registra o tempo entre o início do start() e o fim de uma fase da inicialização, no histograma
+     *  startup.<fase> (us) e no Log.
+     */
+    private static void phase(String name, long start) {
+        long elapsed = System.nanoTime() - start;
+        Metrics.register(new LatencyHistogram("startup." + name, "us")).record(elapsed / 1000);
+        Log.info("startup.phase", "phase", name, "ms", elapsed / 1_000_000);
+    }
+
+    /**
+     *  Encerra a conexão com o servidor, a fonte de números, o registro de partidas e as threads do TaskScheduler quando a janela for fechada
+     */
+    @Override
+    public void stop() throws IOException {
+        if (gameClient instanceof Closeable) { // Encerra a conexão com o GuessServer
+            ((Closeable) gameClient).close();
+        }
+        AutoPlay.stop();
+        LedWall.close();
+        engine.stopIdleEviction();
+        FxProfiler.report();
+        numberSource.close();
+        if (journal != null) {
+            journal.close();
+        }
+        TaskScheduler.shutdown();
+    }
+
+    /**
+     *  Troca a Root da Scene para a Root da tela principal com o tamanho escolhido, assim que a tela principal
+     *  terminar de ser carregada em segundo plano
+     * @param scale Escala do display, 1 = escala original
+     */
+    public static void showMainScreen(double scale){
+        Runnable show = () -> {
+            mainScene.setRoot(mainRoot);
+            controller.increaseDigitSize(scale);
+        };
+        if (ready.isDone() && Platform.isFxApplicationThread()) {
+            show.run();
+        } else { // Ainda carregando, a troca acontece quando terminar
+            ready.thenRun(() -> Platform.runLater(show));
+        }
+    }
+
+    public static GameStats getStats() {
+        return stats;
+    }
+
+    public static GameEngine getEngine() {
+        return engine;
+    }
+
+    public static GameClient getGameClient() {
+        return gameClient;
     }
 
     /**
-     *  Troca a Root da Scene para a Root da tela principal
+     *  Joga em um GuessServer caso a propriedade guess.server (host:porta) esteja definida, senão joga no GameEngine
+     *  local
+     * @param pinned true para que o jogo local nunca seja removido por inatividade, como o da própria interface.
      */
-    public static void initMainScreen(){
-        mainScene.setRoot(mainRoot);
+    static GameClient createGameClient(boolean pinned) {
+        String server = System.getProperty("guess.server");
+        if (server == null || server.isEmpty()) {
+            return new LocalGameClient(engine, pinned);
+        }
+        int separator = server.lastIndexOf(':');
+        return new RemoteGameClient(server.substring(0, separator), Integer.parseInt(server.substring(separator + 1)));
     }
 
     public static Controller getController() {
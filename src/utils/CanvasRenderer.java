@@ -0,0 +1,145 @@
+package utils;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+import java.util.Arrays;
+
+/**
+ *      Desenha todos os dígitos em um único Canvas, em vez de 7 ImageView's por dígito. Para cada escala as imagens de
+ *  segmento (horizontal e vertical, com e sem cor) são pré-rasterizadas no tamanho final pelo SpriteRasterizer, assim
+ *  o desenho fica nítido em qualquer tamanho e o Canvas apenas copia pixels. As imagens ficam no LedAssets e são
+ *  compartilhadas por todos os displays.
+ *
+ *  O display pode ocupar o Canvas inteiro, que muda de tamanho com a quantidade de dígitos, ou uma área fixa de um
+ *  Canvas compartilhado por vários displays (LedWall), a partir de uma origem.
+ *
+ *  Apenas os dígitos cujo padrão mudou são redesenhados, a não ser que a cor, a escala ou a quantidade de dígitos
+ *  tenham mudado.
+ */
+final class CanvasRenderer implements LedRenderer {
+    // Geometria de um dígito na escala 1, baseada no tamanho dos segmentos do MainScreen.fxml.
+    static final double CELL_WIDTH = 100, CELL_HEIGHT = 180;
+    private static final double SEGMENT_LENGTH = 54, SEGMENT_THICKNESS = 23;
+    private static final double OFFSET_Y = 23.5; // Centraliza os 133 pixels de altura do dígito na célula
+    // Posição (x, y) e orientação de cada segmento, na ordem descrita no LedDisplay.
+    private static final double[] SEGMENT_X = {23, 23, 66, 66, 23, 11, 11};
+    private static final double[] SEGMENT_Y = {55, 0, 12, 67, 110, 67, 12};
+    private static final boolean[] VERTICAL = {false, false, true, true, false, true, true};
+
+    private final Canvas canvas;
+    private final LedAssets assets;
+    private final double originX, originY; // Canto superior esquerdo do display no Canvas
+    private final boolean ownsCanvas; // Indica se o Canvas muda de tamanho com o display
+
+    private double scale = 1;
+    private byte[] shownMasks = new byte[0];
+    private int shownCount = -1; // -1 força o desenho completo
+    private Image shownFullImage;
+    private Sprites full, empty; // Imagens da escala e da cor atuais
+
+    /**
+     *      Display ocupando o Canvas inteiro. As imagens sem cor das escalas passadas são criadas aqui, para que trocar
+     *  de escala não precise rasterizá-las na thread do JavaFX.
+     * @param canvas Canvas do display.
+     * @param assets Imagens compartilhadas.
+     * @param scales Escalas que podem ser usadas.
+     */
+    CanvasRenderer(Canvas canvas, LedAssets assets, double[] scales) {
+        this(canvas, assets, 0, 0, true);
+        for (double s : scales) {
+            assets.sprites(assets.getEmptyImage(), s);
+        }
+    }
+
+    /**
+     *      Display em uma área de um Canvas compartilhado, sem mudar o tamanho do Canvas.
+     * @param canvas Canvas compartilhado.
+     * @param assets Imagens compartilhadas.
+     * @param originX Posição x do display no Canvas.
+     * @param originY Posição y do display no Canvas.
+     */
+    CanvasRenderer(Canvas canvas, LedAssets assets, double originX, double originY) {
+        this(canvas, assets, originX, originY, false);
+    }
+
+    private CanvasRenderer(Canvas canvas, LedAssets assets, double originX, double originY, boolean ownsCanvas) {
+        this.canvas = canvas;
+        this.assets = assets;
+        this.originX = originX;
+        this.originY = originY;
+        this.ownsCanvas = ownsCanvas;
+    }
+
+    @Override
+    public void render(byte[] masks, int count, Image fullImage) {
+        boolean redrawAll = count != shownCount || fullImage != shownFullImage;
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        if (count != shownCount) {
+            if (ownsCanvas) { // Muda o tamanho do Canvas somente quando a quantidade de dígitos muda
+                canvas.setWidth(Math.ceil(count * CELL_WIDTH * scale));
+                canvas.setHeight(Math.ceil(CELL_HEIGHT * scale));
+            } else if (shownCount > count) { // Apaga os dígitos que sobraram na área do display
+                graphics.clearRect(originX + count * CELL_WIDTH * scale, originY,
+                        (shownCount - count) * CELL_WIDTH * scale, CELL_HEIGHT * scale);
+            }
+        }
+        if (shownMasks.length < count) {
+            shownMasks = Arrays.copyOf(shownMasks, count);
+        }
+        if (redrawAll) {
+            updateSprites(fullImage);
+        }
+        for (int i = 0; i < count; i++) {
+            if (!redrawAll && shownMasks[i] == masks[i]) continue; // Dígito não mudou
+            drawDigit(graphics, i, masks[i]);
+            shownMasks[i] = masks[i];
+        }
+        shownCount = count;
+        shownFullImage = fullImage;
+    }
+
+    @Override
+    public void setScale(double scale) {
+        if (!ownsCanvas && shownCount > 0) { // Apaga o display na escala antiga
+            canvas.getGraphicsContext2D().clearRect(originX, originY, shownCount * CELL_WIDTH * this.scale,
+                    CELL_HEIGHT * this.scale);
+        }
+        this.scale = scale;
+        this.shownCount = -1; // Tamanho mudou, tudo será redesenhado
+    }
+
+    private void drawDigit(GraphicsContext graphics, int position, int mask) {
+        double cellX = originX + position * CELL_WIDTH * scale;
+        graphics.clearRect(cellX, originY, CELL_WIDTH * scale, CELL_HEIGHT * scale);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            Sprites sprites = (mask & (1 << i)) != 0 ? full : empty;
+            Image sprite = VERTICAL[i] ? sprites.vertical : sprites.horizontal;
+            graphics.drawImage(sprite, Math.round(cellX + SEGMENT_X[i] * scale),
+                    Math.round(originY + (OFFSET_Y + SEGMENT_Y[i]) * scale));
+        }
+    }
+
+    /**
+     *      Busca no LedAssets as imagens da escala atual, com a cor da imagem passada e sem cor.
+     */
+    private void updateSprites(Image fullImage) {
+        full = assets.sprites(fullImage, scale);
+        empty = assets.sprites(assets.getEmptyImage(), scale);
+    }
+
+    /**
+     *      Imagens horizontal e vertical de um segmento em uma escala.
+     */
+    static final class Sprites {
+        private final Image horizontal, vertical;
+
+        Sprites(Image source, double scale) {
+            int length = (int) Math.max(1, Math.round(SEGMENT_LENGTH * scale));
+            int thickness = (int) Math.max(1, Math.round(SEGMENT_THICKNESS * scale));
+            this.horizontal = SpriteRasterizer.rasterize(source, length, thickness, false);
+            this.vertical = SpriteRasterizer.rasterize(source, length, thickness, true);
+        }
+    }
+}
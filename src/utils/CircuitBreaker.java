@@ -0,0 +1,88 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *      Disjuntor (circuit breaker) que para de chamar um serviço enquanto ele está falhando:
+ *
+ *  - CLOSED: as chamadas são permitidas. Após failureThreshold falhas seguidas o disjuntor abre.
+ *  - OPEN: nenhuma chamada é permitida até passar o tempo openNanos.
+ *  - HALF_OPEN: uma única chamada de teste é permitida. Se ela funcionar o disjuntor fecha, senão abre de novo. Se
+ *      ela não chegar ao serviço (onSkipped()) o disjuntor volta a OPEN e a próxima chamada é o novo teste.
+ *
+ *  O estado é guardado em variáveis atômicas, sem locks.
+ */
+public final class CircuitBreaker {
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private static final State[] STATES = State.values();
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    /**
+     * @param failureThreshold Falhas seguidas até o disjuntor abrir.
+     * @param openTime Tempo que o disjuntor fica aberto antes da chamada de teste.
+     * @param unit Unidade do tempo.
+     */
+    public CircuitBreaker(int failureThreshold, long openTime, TimeUnit unit) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = unit.toNanos(openTime);
+    }
+
+    /**
+     *      Verifica se uma chamada pode ser feita. Quando o tempo aberto acaba, apenas a primeira thread a chamar este
+     *  método recebe true (chamada de teste).
+     * @return true caso a chamada possa ser feita.
+     */
+    public boolean allowRequest() {
+        int current = state.get();
+        if (current == State.CLOSED.ordinal()) {
+            return true;
+        }
+        if (current == State.OPEN.ordinal() && System.nanoTime() - openedAt.get() >= openNanos) {
+            return state.compareAndSet(current, State.HALF_OPEN.ordinal());
+        }
+        return false;
+    }
+
+    /**
+     *      Registra uma chamada bem sucedida, fechando o disjuntor.
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED.ordinal());
+    }
+
+    /**
+     *      Registra uma chamada que falhou, abrindo o disjuntor caso o limite tenha sido atingido ou a chamada de teste
+     *  tenha falhado.
+     */
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        int current = state.get();
+        boolean testFailed = current == State.HALF_OPEN.ordinal();
+        if (testFailed || (current == State.CLOSED.ordinal() && failures >= failureThreshold)) {
+            openedAt.set(System.nanoTime());
+            state.set(State.OPEN.ordinal());
+        }
+    }
+
+    /**
+     *      Registra uma chamada permitida que não chegou ao serviço, e por isso não conta como sucesso nem falha. Caso
+     *  ela fosse a chamada de teste, o disjuntor volta a OPEN com o tempo aberto já esgotado, liberando o teste para a
+     *  próxima chamada.
+     */
+    public void onSkipped() {
+        state.compareAndSet(State.HALF_OPEN.ordinal(), State.OPEN.ordinal());
+    }
+
+    public State getState() {
+        return STATES[state.get()];
+    }
+}
@@ -0,0 +1,59 @@
+package utils;
+
+/**
+ *      Guarda o intervalo de números do jogo em um único lugar. O padrão é o intervalo da prova (1 - 300), mas ele pode
+ *  ser trocado pelas propriedades de sistema guess.min e guess.max, por exemplo para jogar de 1 a 1000000000.
+ *  O HttpNumber, o Controller e o LedDisplay usam esses valores em vez de limites fixos.
+ */
+public final class GameConfig {
+    private static final int MIN = Integer.getInteger("guess.min", 1);
+    private static final int MAX = Math.max(MIN, Integer.getInteger("guess.max", 300));
+    private static final int MAX_DIGITS = Math.max(digitCount(MIN), digitCount(MAX));
+
+    private GameConfig() { // Sem instânciação
+    }
+
+    /**
+     * @return Menor número possível.
+     */
+    public static int getMin() {
+        return MIN;
+    }
+
+    /**
+     * @return Maior número possível.
+     */
+    public static int getMax() {
+        return MAX;
+    }
+
+    /**
+     * @return Quantidade máxima de caracteres de um palpite válido.
+     */
+    public static int getMaxDigits() {
+        return MAX_DIGITS;
+    }
+
+    /**
+     *      Verifica se o número está dentro do intervalo do jogo.
+     * @param number Número a ser verificado.
+     * @return true caso MIN <= number <= MAX.
+     */
+    public static boolean isInRange(int number) {
+        return number >= MIN && number <= MAX;
+    }
+
+    /**
+     *      Conta os caracteres do número sem convertê-lo para String, incluindo o sinal de menos.
+     * @param number Número.
+     * @return Quantidade de caracteres.
+     */
+    public static int digitCount(int number) {
+        long value = Math.abs((long) number);
+        int count = number < 0 ? 2 : 1;
+        for (value /= 10; value > 0; value /= 10) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -1,106 +1,236 @@
 package utils;
 
-import ui.Main;
+import metrics.Metrics;
 
 import javax.net.ssl.SSLException;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.SocketTimeoutException;
-import java.net.URL;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- *      Essa classe tem o propósito de dar o request e pegar o número que representa a resposta. O request é feito no
- * método request(), esse por sua vez chama o método parseJSON() para ler o arquivo recebido do servidor e retirar
- * o número por meio de uma expressão regular.
+ *      Fonte de números remota: dá o request e pega o número que representa a resposta. O request é feito no
+ * método next(), e o corpo da resposta é lido pelo JsonValueParser à medida que os bytes chegam, sem juntar o
+ * arquivo em uma String. O resultado é entregue por um CompletableFuture, que é completado com
+ * uma HttpNumberException caso o servidor retorne um erro ou a conexão expire.
+ *
+ *      Todos os requests usam um único HttpClient de longa duração (HTTP/2 com keep-alive), assim apenas o primeiro
+ * request paga o handshake TCP e TLS. Os tempos limite podem ser configurados pelas propriedades de sistema
+ * guess.http.connectTimeout e guess.http.readTimeout (em milissegundos).
+ *
+ *      Para que uma nova partida não precise esperar o servidor, a classe mantém um pool limitado de números já
+ * buscados. Sempre que o pool cai até a marca inferior (lowWatermark) uma tarefa em segundo plano busca novos números
+ * até atingir a marca superior (highWatermark). O next() só acessa a rede quando o pool estiver vazio.
+ *  Os valores podem ser configurados pelas propriedades de sistema guess.pool.depth, guess.pool.low e guess.pool.high.
+ *
+ *      O endereço do servidor é passado no construtor (ex: NumberSource.REMOTE_URI ou o StubNumberServer), e o
+ * intervalo do GameConfig é adicionado como parâmetros min e max.
  */
-public final class HttpNumber {
-    private static final Pattern valueRegex = Pattern.compile("\"value\":(\\d+)");
-    private static int number =  -1; // Número obtido, -1 significa que ele ainda não foi retornado
-    private static int httpCode; // Código retornado do servidor
+public final class HttpNumber implements NumberSource {
+    private static final int CONNECT_TIMEOUT = Integer.getInteger("guess.http.connectTimeout", 5000);
+    private static final int READ_TIMEOUT = Integer.getInteger("guess.http.readTimeout", 5000);
 
-    public HttpNumber() { // Sem instânciação
+    private static final int POOL_DEPTH = Math.max(1, Integer.getInteger("guess.pool.depth", 8));
+    private static final int HIGH_WATERMARK = Math.min(POOL_DEPTH,
+            Math.max(1, Integer.getInteger("guess.pool.high", POOL_DEPTH)));
+    private static final int LOW_WATERMARK = Math.min(HIGH_WATERMARK - 1,
+            Math.max(0, Integer.getInteger("guess.pool.low", 2)));
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT))
+            .executor(TaskScheduler.getBlockingExecutor())
+            .build();
+
+    private final HttpRequest numberRequest;
+    private final BlockingQueue<Integer> pool = new ArrayBlockingQueue<>(POOL_DEPTH); // Números pré-buscados
+    private final AtomicBoolean refilling = new AtomicBoolean(false); // Indica se o pool está sendo reabastecido
+    private volatile boolean closed;
+
+    /**
+     * @param uri Endereço do servidor de números, sem parâmetros.
+     */
+    public HttpNumber(URI uri) {
+        this.numberRequest = HttpRequest.newBuilder(
+                        URI.create(uri + "?min=" + GameConfig.getMin() + "&max=" + GameConfig.getMax()))
+                .timeout(Duration.ofMillis(READ_TIMEOUT))
+                .GET()
+                .build();
     }
 
     /**
-     *      Dá o request lê o arquivo por meio de um InputStreamReader e salva o código recebido do servidor no campo
-     *  number. Invoca o método parseJSON com uma String contendo o conteúdo do arquivo e o código recebido do servidor
+     *      Pega o próximo número do pool, caso exista um. Se o pool estiver vazio dá o request diretamente para o
+     *  servidor. Em ambos os casos o pool é reabastecido em segundo plano se estiver abaixo da marca inferior.
+     * @return Future completado com o número, ou com uma HttpNumberException caso ele não possa ser obtido.
      */
-    public static void request() {
-        number = -1;
-        ExecutorService exec = Executors.newSingleThreadExecutor();
-        exec.execute(() -> {
-            HttpURLConnection connection = null;
-            try {
-                URL url = new URL("https://us-central1-ss-devops.cloudfunctions.net/rand?min=1&max=300");
-                connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-                connection.setConnectTimeout(5000);
-                connection.setReadTimeout(5000);
-
-                try{ // Caso a conexão expire
-                    httpCode = connection.getResponseCode();
-                }catch (SocketTimeoutException | SSLException e){
-                    Main.getController().showError(connection.getConnectTimeout());
-                    return;
-                }
-                BufferedReader reader;
-                String line;
-                StringBuilder sb = new StringBuilder();
-                if (httpCode == 200) { // Sucesso
-                    reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    while ((line = reader.readLine()) != null) {
-                        sb.append(line);
-                    }
-                } else { // Erro
-                    reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                    while ((line = reader.readLine()) != null) {
-                        sb.append(line);
-                    }
-                }
-                String json = sb.toString();
-                parseJSON(json, httpCode == 200);
-
-            } catch (IOException e) {
-                e.printStackTrace();
-            } finally {
-                assert connection != null;
-                connection.disconnect();
-                exec.shutdown();
+    @Override
+    public CompletableFuture<Integer> next() {
+        Integer pooled = pool.poll();
+        refillIfLow();
+        if (pooled != null) { // Número já disponível, nenhuma espera
+            return CompletableFuture.completedFuture(pooled);
+        }
+        return fetch();
+    }
+
+    /**
+     *      Começa a encher o pool em segundo plano, assim o handshake TCP e TLS acontece antes da primeira partida.
+     */
+    @Override
+    public void warmUp() {
+        refillIfLow();
+    }
+
+    /**
+     *      Interrompe o reabastecimento do pool. Requests em andamento não são cancelados.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pool.clear();
+    }
+
+    int getPoolSize() {
+        return pool.size();
+    }
+
+    static int getLowWatermark() {
+        return LOW_WATERMARK;
+    }
+
+    static int getHighWatermark() {
+        return HIGH_WATERMARK;
+    }
+
+    /**
+     *      Inicia o reabastecimento do pool caso ele esteja na marca inferior ou abaixo dela e nenhum outro
+     *  reabastecimento esteja acontecendo. Os números são buscados um a um até se atingir a marca superior, erros
+     *  apenas interrompem o reabastecimento, pois o next() irá buscar diretamente no servidor quando o pool esvaziar.
+     */
+    private void refillIfLow() {
+        if (closed || pool.size() > LOW_WATERMARK || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        refillNext();
+    }
+
+    /**
+     *      Busca um número e o coloca no pool, se encadeando até o pool atingir a marca superior. Nenhuma thread fica
+     *  bloqueada entre um request e outro.
+     */
+    private void refillNext() {
+        if (closed || pool.size() >= HIGH_WATERMARK) {
+            refilling.set(false);
+            return;
+        }
+        fetch().whenComplete((fetched, error) -> {
+            if (error != null || !pool.offer(fetched)) {
+                refilling.set(false);
+                return;
             }
+            refillNext();
         });
     }
 
     /**
-     *      Retira o número da String json caso o boolean success = true (Código http é 200). Se success = false
-     * significa que um erro ocorreu, logo o metodo showError() do Controller será invocado para se exibir a mensagem e
-     * o código de erro na UI.
-     * @param json
-     * @param success
+     *      Dá o request de forma assíncrona pelo HttpClient compartilhado. Se o código http for 200 o corpo é lido pelo
+     *  NumberSubscriber, senão é descartado.
+     * @return Future completado com o número recebido do servidor, ou com uma HttpNumberException caso o servidor
+     *  retorne um erro, uma resposta sem o número ou a conexão falhe.
      */
-    private static void parseJSON(String json, boolean success) {
-        Matcher matcher = valueRegex.matcher(json);
-        if (success){
-            if (matcher.find()) {
-                number = Integer.parseInt(matcher.group(1));
-                System.out.println(number);
-            }
-        }else{
-            Main.getController().showError(httpCode);
+    private CompletableFuture<Integer> fetch() {
+        long start = System.nanoTime();
+        return client.sendAsync(numberRequest, HttpNumber::bodySubscriber)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        HttpNumberException failure = toHttpNumberException(error);
+                        Metrics.fetchLatency(0).recordSince(start);
+                        throw new CompletionException(failure);
+                    }
+                    Metrics.fetchLatency(response.statusCode()).recordSince(start);
+                    int value = response.body();
+                    if (value == -1) { // Erro
+                        throw new CompletionException(
+                                new HttpNumberException(response.statusCode(), "Resposta inválida do servidor"));
+                    }
+                    Log.debug("fetch.value", "value", value);
+                    return value;
+                });
+    }
+
+    /**
+     *      Converte a falha do HttpClient em uma HttpNumberException. Conexões expiradas e falhas de SSL usam o tempo
+     *  limite de conexão como código, assim como antes.
+     * @param error Falha retornada pelo HttpClient.
+     * @return Exceção com o código a ser exibido na UI.
+     */
+    private static HttpNumberException toHttpNumberException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpNumberException) {
+            return (HttpNumberException) cause;
         }
+        if (cause instanceof HttpTimeoutException || cause instanceof SSLException) { // Caso a conexão expire
+            (cause instanceof SSLException ? Metrics.FETCH_SSL_ERRORS : Metrics.FETCH_TIMEOUTS).incrementAndGet();
+            return new HttpNumberException(CONNECT_TIMEOUT, cause);
+        }
+        return new HttpNumberException(0, cause);
     }
 
     /**
-     *      Retorna o código http obtido do servidor.
-     * @return Código http.
+     *      Escolhe como o corpo da resposta será lido de acordo com o código http.
+     * @param responseInfo Código e cabeçalhos da resposta.
+     * @return Leitor do número caso o código seja 200, senão um leitor que descarta o corpo e retorna -1.
      */
+    private static HttpResponse.BodySubscriber<Integer> bodySubscriber(HttpResponse.ResponseInfo responseInfo) {
+        if (responseInfo.statusCode() == 200) { // Sucesso
+            return new NumberSubscriber();
+        }
+        return HttpResponse.BodySubscribers.replacing(-1); // Erro
+    }
 
-    public static int getNumber() {
-        return number;
+    /**
+     *      Lê os ByteBuffers do corpo da resposta diretamente pelo JsonValueParser, completando com o valor do campo
+     *  "value" ou -1 caso ele não exista.
+     */
+    private static final class NumberSubscriber implements HttpResponse.BodySubscriber<Integer> {
+        private final JsonValueParser parser = new JsonValueParser();
+        private final CompletableFuture<Integer> body = new CompletableFuture<>();
+
+        @Override
+        public CompletionStage<Integer> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                parser.feed(buffer);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(parser.finish());
+        }
     }
 }
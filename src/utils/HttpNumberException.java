@@ -0,0 +1,32 @@
+package utils;
+
+import java.io.IOException;
+
+/**
+ *      Exceção usada para completar o CompletableFuture retornado pelo NumberSource.next() quando o número não pode
+ *  ser obtido. Guarda o código que deve ser exibido na UI: o código http retornado pelo servidor, o tempo limite da
+ *  conexão caso ela tenha expirado ou 0 para qualquer outra falha.
+ */
+public class HttpNumberException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int httpCode; // Código a ser exibido na UI
+
+    public HttpNumberException(int httpCode, String message) {
+        super(message);
+        this.httpCode = httpCode;
+    }
+
+    public HttpNumberException(int httpCode, Throwable cause) {
+        super(cause);
+        this.httpCode = httpCode;
+    }
+
+    /**
+     *      Retorna o código que representa o erro.
+     * @return Código http, tempo limite ou 0.
+     */
+    public int getHttpCode() {
+        return httpCode;
+    }
+}
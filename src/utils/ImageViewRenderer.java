@@ -0,0 +1,83 @@
+package utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import ui.FxProfiler;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *      Desenha o display nas ImageView's de cada dígito de um LedHost (o Controller). A máscara de segmentos ligados de cada dígito é
+ *  guardada, assim apenas as ImageView's cujo estado mudou recebem uma nova imagem. Se a imagem com cor mudar, os
+ *  segmentos ligados também são trocados.
+ */
+final class ImageViewRenderer implements LedRenderer {
+    private final LedHost host; // Tela com os dígitos
+    private final Image emptyImage; // Imagem sem cor
+    private int[] shownMasks = new int[0]; // Segmentos ligados em cada dígito, -1 significa desconhecido
+    private Image shownFullImage; // Imagem com cor usada no último desenho
+
+    ImageViewRenderer(LedHost host, Image emptyImage) {
+        this.host = host;
+        this.emptyImage = emptyImage;
+    }
+
+    /**
+     *      Coloca na UI a quantidade de dígitos necessária por meio da classe Controller e em seguida chama o
+     *  writeDigit() para cada máscara.
+     */
+    @Override
+    public void render(byte[] masks, int count, Image fullImage) {
+        boolean colorChanged = fullImage != shownFullImage; // Segmentos ligados precisam da nova imagem
+        shownFullImage = fullImage;
+
+        // Cria os dígitos na UI (ainda sem os valores corretos).
+        FxProfiler.measure("digits.create", () -> host.createNewDigits(count));
+        for (int i = 0; i < count; i++){
+            // Pega os segmentos do dígito correspondente (ver mais em Controller).
+            writeDigit(i, masks[i], host.getSegments(i), colorChanged);
+        }
+    }
+
+    /**
+     *      Aumenta o tamanho dos dígitos por meio da escala da caixa que os contém.
+     */
+    @Override
+    public void setScale(double scale) {
+        host.scaleNumberBox(scale);
+    }
+
+    /**
+     *      Aceita o padrão de ativação do dígito a ser mostrado juntamente com os segmentos correspondentes a posição do
+     * dígito. Em seguida usa esse padrão para ativar os segmentos, trocando a imagem apenas dos
+     * segmentos cujo estado é diferente do último desenho nessa posição.
+     *
+     * @param position Posição do dígito no display.
+     * @param mask Padrão de ativação do dígito, o bit i indica se o segmento i está ligado.
+     * @param segments Os 7 segmentos do dígito ordenados corretamente.
+     * @param colorChanged Indica se a imagem com cor mudou desde o último desenho.
+     */
+    private void writeDigit(int position, int mask, List<ImageView> segments, boolean colorChanged){
+        if (position >= shownMasks.length) { // Posição nova, estado desconhecido
+            int oldLength = shownMasks.length;
+            shownMasks = Arrays.copyOf(shownMasks, position + 1);
+            Arrays.fill(shownMasks, oldLength, shownMasks.length, -1);
+        }
+        int previous = shownMasks[position];
+        int changed = previous == -1 ? ALL_SEGMENTS : mask ^ previous; // Segmentos a serem trocados
+        if (colorChanged) changed |= mask;
+        shownMasks[position] = mask;
+
+        for (int i = 0 ; i < SEGMENT_COUNT; i++){
+            // Esse loop irá "ativar" os segmentos necessários para formar o número.
+            if ((changed & (1 << i)) == 0) continue; // Segmento não mudou
+            ImageView currentSegment = segments.get(i);
+            if ((mask & (1 << i)) != 0){ // Liga
+                currentSegment.setImage(shownFullImage);
+            }else { // Desliga
+                currentSegment.setImage(emptyImage);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ *      Parser de bytes que retira o campo "value" do json retornado pelo servidor sem criar Strings intermediárias.
+ *  Os bytes são lidos uma única vez por uma máquina de estados, então o conteúdo pode chegar em vários pedaços (por
+ *  exemplo os ByteBuffers entregues pelo HttpClient) sem precisar ser juntado antes.
+ *
+ *  Diferente da antiga expressão regular, espaços em branco entre a chave, os dois pontos e o número são aceitos, e a
+ *  chave é reconhecida em qualquer posição do objeto. Uma String "value" usada como valor de outro campo não é
+ *  confundida com a chave, pois a chave precisa ser seguida por dois pontos.
+ *
+ *  Ex: {"value":42}, { "value" : 42 } e {"min":1,"value":42,"max":300} retornam 42.
+ */
+public final class JsonValueParser {
+    private static final byte[] KEY = {'v', 'a', 'l', 'u', 'e'}; // Chave procurada
+
+    private static final int SCAN = 0; // Fora de uma String, procurando a próxima aspa
+    private static final int IN_STRING = 1; // Dentro de uma String
+    private static final int AFTER_STRING = 2; // Depois de uma String, esperando os dois pontos
+    private static final int AFTER_COLON = 3; // Depois dos dois pontos da chave, esperando o número
+    private static final int IN_NUMBER = 4; // Lendo os dígitos do número
+    private static final int DONE = 5; // Número encontrado
+
+    private int state = SCAN;
+    private int keyIndex; // Quantos bytes da chave já foram reconhecidos
+    private boolean keyMatches; // Indica se a String atual ainda pode ser a chave
+    private boolean escaped; // Indica se o byte anterior foi uma barra invertida
+    private boolean isKey; // Indica se a última String lida foi a chave
+    private long value; // Valor acumulado do número
+    private int result = -1;
+
+    /**
+     *      Retira o valor de um json completo.
+     * @param bytes Conteúdo do json.
+     * @param offset Posição inicial.
+     * @param length Quantidade de bytes.
+     * @return Valor do campo "value" ou -1 caso ele não exista.
+     */
+    public static int parse(byte[] bytes, int offset, int length) {
+        JsonValueParser parser = new JsonValueParser();
+        parser.feed(bytes, offset, length);
+        return parser.finish();
+    }
+
+    /**
+     *      Retira o valor de um json completo.
+     * @param buffer Conteúdo do json, a posição do buffer é avançada até o fim.
+     * @return Valor do campo "value" ou -1 caso ele não exista.
+     */
+    public static int parse(ByteBuffer buffer) {
+        JsonValueParser parser = new JsonValueParser();
+        parser.feed(buffer);
+        return parser.finish();
+    }
+
+    /**
+     *      Volta o parser ao estado inicial para que ele possa ser reutilizado.
+     */
+    public void reset() {
+        this.state = SCAN;
+        this.escaped = false;
+        this.value = 0;
+        this.result = -1;
+    }
+
+    /**
+     *      Lê o próximo pedaço do json.
+     * @param buffer Pedaço do json, a posição do buffer é avançada até o fim.
+     */
+    public void feed(ByteBuffer buffer) {
+        while (buffer.hasRemaining() && state != DONE) {
+            next(buffer.get());
+        }
+        buffer.position(buffer.limit());
+    }
+
+    /**
+     *      Lê o próximo pedaço do json.
+     * @param bytes Pedaço do json.
+     * @param offset Posição inicial.
+     * @param length Quantidade de bytes.
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end && state != DONE; i++) {
+            next(bytes[i]);
+        }
+    }
+
+    /**
+     *      Indica que o json acabou. O número só vale quando algo o termina (vírgula, chave, espaço...), então um
+     *  conteúdo cortado no meio do número, como {"value":18, não é aceito.
+     * @return Valor do campo "value" ou -1 caso ele não exista ou o conteúdo esteja incompleto.
+     */
+    public int finish() {
+        return result; // Só preenchido pelo complete()
+    }
+
+    /**
+     *      Avança a máquina de estados com o próximo byte.
+     * @param b Byte lido.
+     */
+    private void next(byte b) {
+        switch (state) {
+            case SCAN:
+                if (b == '"') {
+                    startString();
+                }
+                break;
+            case IN_STRING:
+                if (escaped) { // Byte escapado, a String não pode ser a chave
+                    escaped = false;
+                    keyMatches = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                    keyMatches = false;
+                } else if (b == '"') { // Fim da String
+                    isKey = keyMatches && keyIndex == KEY.length;
+                    state = AFTER_STRING;
+                } else if (keyMatches && keyIndex < KEY.length && b == KEY[keyIndex]) {
+                    keyIndex++;
+                } else {
+                    keyMatches = false;
+                }
+                break;
+            case AFTER_STRING:
+                if (isWhitespace(b)) {
+                    break;
+                }
+                if (b == ':' && isKey) {
+                    state = AFTER_COLON;
+                } else if (b == '"') { // Início de outra String
+                    startString();
+                } else {
+                    state = SCAN;
+                }
+                break;
+            case AFTER_COLON:
+                if (isWhitespace(b)) {
+                    break;
+                }
+                if (b >= '0' && b <= '9') {
+                    value = b - '0';
+                    state = IN_NUMBER;
+                } else if (b == '"') { // O valor não é um número
+                    startString();
+                } else {
+                    state = SCAN;
+                }
+                break;
+            case IN_NUMBER:
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (value > Integer.MAX_VALUE) { // Número grande demais
+                        state = SCAN;
+                    }
+                } else if (b == '.' || b == 'e' || b == 'E') { // Número não é inteiro
+                    state = SCAN;
+                } else {
+                    complete();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void startString() {
+        state = IN_STRING;
+        keyIndex = 0;
+        keyMatches = true;
+        escaped = false;
+    }
+
+    private void complete() {
+        result = (int) value;
+        state = DONE;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
@@ -0,0 +1,95 @@
+package utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *      Imagens usadas por todos os LedDisplay's do processo: as imagens de segmento com e sem cor, as cores já pintadas
+ *  (TintCache) e as imagens de segmento pré-rasterizadas do CanvasRenderer para cada escala e cor.
+ *
+ *  Nenhuma imagem é alterada depois de criada, as novas cores e escalas apenas adicionam imagens aos caches. Assim uma
+ *  única instância é compartilhada entre displays e threads sem cópias: centenas de displays do LedWall na mesma
+ *  escala e cor desenham as mesmas duas imagens.
+ *
+ *  As imagens pré-rasterizadas de uma cor ficam guardadas enquanto a imagem pintada existir; quando ela sai do TintCache
+ *  e nenhum display a usa mais, as suas imagens são descartadas pelo GC.
+ */
+public final class LedAssets {
+    private static final int TINT_CACHE_SIZE = Math.max(1, Integer.getInteger("guess.tint.cacheSize", 16));
+
+    private final Image emptyImage; // Imagem sem cor
+    private final Image fullImage; // Imagem com a cor padrão
+    private final TintCache tintCache; // Imagens com cor já pintadas, a partir da imagem original
+    private final Map<Double, CanvasRenderer.Sprites> emptySprites = new ConcurrentHashMap<>(); // Por escala
+    private final Map<Image, Map<Double, CanvasRenderer.Sprites>> fullSprites =
+            Collections.synchronizedMap(new WeakHashMap<>()); // Por imagem com cor e escala
+
+    private LedAssets() {
+        this.fullImage = load("full_segment.png");
+        this.emptyImage = load("empty_segment.png");
+        this.tintCache = new TintCache(fullImage, TINT_CACHE_SIZE);
+    }
+
+    /**
+     *      Retorna as imagens compartilhadas, decodificando os PNG's na thread atual caso seja o primeiro acesso. O Main
+     *  faz o primeiro acesso em segundo plano durante a inicialização.
+     * @return Imagens compartilhadas.
+     */
+    public static LedAssets get() {
+        return Holder.INSTANCE;
+    }
+
+    public Image getEmptyImage() {
+        return emptyImage;
+    }
+
+    /**
+     * @return Imagem de segmento com a cor padrão.
+     */
+    public Image getFullImage() {
+        return fullImage;
+    }
+
+    /**
+     *      Retorna a imagem de segmento pintada com a cor, a partir da imagem original.
+     * @param color Cor desejada.
+     * @return Imagem pintada.
+     */
+    public Image tint(Color color) {
+        return tintCache.get(color);
+    }
+
+    /**
+     *      Retorna o cache de imagens pintadas, para consulta dos contadores de acertos e faltas.
+     * @return Cache de imagens pintadas.
+     */
+    public TintCache getTintCache() {
+        return tintCache;
+    }
+
+    /**
+     *      Retorna as imagens de segmento pré-rasterizadas da imagem na escala, criando-as no primeiro uso.
+     * @param image Imagem sem cor ou uma imagem com cor.
+     * @param scale Escala, 1 = escala original.
+     * @return Imagens horizontal e vertical do segmento.
+     */
+    CanvasRenderer.Sprites sprites(Image image, double scale) {
+        Map<Double, CanvasRenderer.Sprites> byScale = image == emptyImage ? emptySprites
+                : fullSprites.computeIfAbsent(image, key -> new ConcurrentHashMap<>());
+        return byScale.computeIfAbsent(scale, s -> new CanvasRenderer.Sprites(image, s));
+    }
+
+    private static Image load(String name) {
+        return new Image(Objects.requireNonNull(LedAssets.class.getClassLoader().getResource(name)).toExternalForm());
+    }
+
+    private static final class Holder { // Carregado no primeiro get()
+        private static final LedAssets INSTANCE = new LedAssets();
+    }
+}
@@ -1,13 +1,15 @@
 package utils;
 
-import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.image.*;
 import javafx.scene.paint.Color;
-import ui.Main;
+import metrics.Metrics;
+import ui.FxProfiler;
+import ui.InitialController;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  *  Esta classe representa um display de LED.
@@ -18,164 +20,231 @@ import java.util.concurrent.Executors;
  *  Os segmentos de cada numeral de LED estão organizados para que sejam identificados individualmente
  *  (começando do meio, segmento de cima e depois seguindo uma ordem horária).
  *
- *  A subclasse LedNumber guarda quais segmentos devem ser ativados para se formar o número que dá nome a cada campo.
+ *  A classe LedGlyphs guarda quais segmentos devem ser ativados para se formar cada dígito (0 - F) e algumas letras,
+ *  como máscaras de 7 bits.
  *  Para o funcionamento correto desses padrões de ativação, os segmentos DEVEM estar na ordem descrita no parágrafo
  *  acima. Isso é feito se adicionando as ImageView's na ordem descrita, e depois as posicionando corretamente.
  *  Ex: A primeira ImageView será a do segmento do meio, a segunda será o segmento do topo e assim sucessivamente.
  *
  *  A "ativação" de cada segmento é simplesmente a troca de uma imagem vazia (sem cor) para uma imagem cheia (com cor).
+ *  O desenho em si é feito por um LedRenderer. Na tela principal são usadas as ImageView's do MainScreen.fxml
+ *  (ImageViewRenderer), com a propriedade de sistema guess.renderer=canvas todos os dígitos são desenhados em um único
+ *  Canvas (CanvasRenderer). O LedWall desenha vários displays em áreas de um mesmo Canvas.
+ *
+ *  Cada display guarda apenas o seu estado (número, padrões e cor); as imagens ficam no LedAssets e são compartilhadas
+ *  por todos os displays. Os métodos de desenho devem ser chamados na thread do JavaFX, o changeColor() em qualquer
+ *  thread.
  *  Mais detalhes do sistema de dígitos na classe Controller.
  */
 public final class LedDisplay {
-    private static String number; // Número exibido no display
-
-    private static Image FULL_SEGMENT_IMAGE; // Imagem com cor
-    private static Image EMPTY_SEGMENT_IMAGE; // Imagem sem cor
-    private static final Map<String, List<Boolean>> numberPatterns = new HashMap<>(); // Padrões de ativação (0 - 9)
-
-    private LedDisplay() { // Sem instânciação
-    }
-    static { // Inicialização estática é a melhor opção
-        LedDisplay.number = "0";
-        LedDisplay.FULL_SEGMENT_IMAGE = new Image(Objects.requireNonNull(
-                Main.class.getClassLoader().getResource("full_segment.png")).toExternalForm());
-        LedDisplay.EMPTY_SEGMENT_IMAGE = new Image(Objects.requireNonNull(
-                Main.class.getClassLoader().getResource("empty_segment.png")).toExternalForm());
-
-        // Esse HashMap irá traduzir os números em suas respectivas sequencias de ativação
-        LedDisplay.numberPatterns.put("0", LedNumber.ZERO);
-        LedDisplay.numberPatterns.put("1", LedNumber.ONE);
-        LedDisplay.numberPatterns.put("2", LedNumber.TWO);
-        LedDisplay.numberPatterns.put("3", LedNumber.THREE);
-        LedDisplay.numberPatterns.put("4", LedNumber.FOUR);
-        LedDisplay.numberPatterns.put("5", LedNumber.FIVE);
-        LedDisplay.numberPatterns.put("6", LedNumber.SIX);
-        LedDisplay.numberPatterns.put("7", LedNumber.SEVEN);
-        LedDisplay.numberPatterns.put("8", LedNumber.EIGHT);
-        LedDisplay.numberPatterns.put("9", LedNumber.NINE);
+    private final LedAssets assets; // Imagens compartilhadas
+    private final AtomicReference<Image> fullSegmentImage; // Imagem com cor
+
+    private final AtomicReference<Color> requestedColor = new AtomicReference<>(); // Última cor pedida
+    private final AtomicBoolean recoloring = new AtomicBoolean(false); // Indica se há pintura agendada
+    private final AtomicBoolean redrawScheduled = new AtomicBoolean(false); // Indica se há redesenho agendado
+
+    private int number; // Número exibido no display
+    private byte[] glyphs = new byte[3]; // Máscaras dos dígitos a serem exibidos
+    private int glyphCount; // Quantidade de dígitos a serem exibidos
+    private LedRenderer renderer; // Responsável por desenhar os dígitos
+
+    /**
+     * @param assets Imagens compartilhadas.
+     * @param renderer Responsável por desenhar os dígitos.
+     */
+    public LedDisplay(LedAssets assets, LedRenderer renderer) {
+        this.assets = Objects.requireNonNull(assets);
+        this.renderer = Objects.requireNonNull(renderer);
+        this.fullSegmentImage = new AtomicReference<>(assets.getFullImage());
     }
 
     /**
-     *  Esse método faz o display mostrar o número 0 no início.
+     *  Cria o display da tela, escolhendo o LedRenderer de acordo com a propriedade guess.renderer, e faz o display
+     *  mostrar o número 0 no início.
+     * @param host Tela com os dígitos.
+     * @return Display da tela.
      * */
-    public static void initialize(){
-        Main.getController().createNewDigits(1); // Cria um dígito
-        LedDisplay.writeDigit(number, Main.getController().getSegments(0));
+    public static LedDisplay forHost(LedHost host){
+        LedAssets assets = LedAssets.get();
+        LedRenderer renderer;
+        if ("canvas".equals(System.getProperty("guess.renderer"))) {
+            Canvas canvas = new Canvas();
+            host.showCanvas(canvas);
+            renderer = new CanvasRenderer(canvas, assets, InitialController.SCALES);
+        } else {
+            renderer = new ImageViewRenderer(host, assets.getEmptyImage());
+        }
+        LedDisplay display = new LedDisplay(assets, renderer);
+        display.displayNumber(0, true);
+        return display;
+    }
+
+    /**
+     *      Cria um display em uma área de um Canvas compartilhado por vários displays. Nada é desenhado até o primeiro
+     *  displayNumber() ou displayText().
+     * @param canvas Canvas compartilhado.
+     * @param x Posição x do display no Canvas.
+     * @param y Posição y do display no Canvas.
+     * @param scale Escala, 1 = escala original.
+     * @return Novo display.
+     */
+    public static LedDisplay inCanvas(Canvas canvas, double x, double y, double scale) {
+        LedAssets assets = LedAssets.get();
+        LedDisplay display = new LedDisplay(assets, new CanvasRenderer(canvas, assets, x, y));
+        display.renderer.setScale(scale);
+        return display;
+    }
+
+    /**
+     * @param scale Escala, 1 = escala original.
+     * @return Largura de um dígito desenhado em um Canvas.
+     */
+    public static double getDigitWidth(double scale) {
+        return CanvasRenderer.CELL_WIDTH * scale;
+    }
+
+    /**
+     * @param scale Escala, 1 = escala original.
+     * @return Altura de um dígito desenhado em um Canvas.
+     */
+    public static double getDigitHeight(double scale) {
+        return CanvasRenderer.CELL_HEIGHT * scale;
+    }
+
+    /**
+     *      Troca o LedRenderer usado e redesenha o display com ele.
+     * @param newRenderer Novo LedRenderer.
+     */
+    public void setRenderer(LedRenderer newRenderer) {
+        renderer = Objects.requireNonNull(newRenderer);
+        redraw();
+    }
+
+    /**
+     *      Muda o tamanho do display.
+     * @param scale Escala, 1 = escala original.
+     */
+    public void setScale(double scale) {
+        renderer.setScale(scale);
+        redraw();
     }
 
     /**
      *      Faz o display mostrar o número passado (newNumber) para o método.
-     *  Primeiro é verificado quantos dígitos o número tem, em seguida este número é passado para a classe Controller
-     *  para que ela os coloque na UI. Por fim o método writeDigit() é chamado para cada dígito do número newNumber.
-     *      Números fora do limite imposto pela prova não irão ser mostrados.
+     *  Primeiro é verificado quantos dígitos o número tem, em seguida os padrões de ativação de cada dígito são
+     *  passados para o LedRenderer, que os coloca na UI. Qualquer quantidade de dígitos é aceita.
+     *      Números fora do intervalo do jogo (GameConfig) não irão ser mostrados.
      *
      * @param newNumber Número a ser mostrado.
-     * @param disableBounds Indica se o limite (1 >= newNumber <= 300) deve ser usado.
+     * @param disableBounds Indica se o intervalo do jogo não deve ser usado.
      * */
-    public static void displayNumber(int newNumber, boolean disableBounds) {
-        if ((newNumber < 1 || newNumber > 300) && !disableBounds){
-            System.out.println("Número fora dos limites");
+    public void displayNumber(int newNumber, boolean disableBounds) {
+        if (!GameConfig.isInRange(newNumber) && !disableBounds){
+            Log.warn("led.outOfRange", "number", newNumber);
             return;
         }
-        LedDisplay.number = String.valueOf(newNumber);
-
-        List<String> digits = Arrays.asList(LedDisplay.number.split("")); // Lista com os dígitos
-        int digitQuantity = digits.size();
+        this.number = newNumber;
+        ensureGlyphCapacity(GameConfig.digitCount(newNumber));
+        glyphCount = LedGlyphs.encode(newNumber, glyphs);
+        render();
+    }
 
-        Main.getController().createNewDigits(digitQuantity); // Cria os dígitos na UI (ainda sem os valores corretos).
-        for (int i = 0; i < digits.size(); i++){
-            String digit = digits.get(i);
-            // Pega os segmentos do dígito correspondente (ver mais em Controller).
-            writeDigit(digit, Main.getController().getSegments(i));
+    /**
+     *      Faz o display mostrar um texto curto, como "Err". Cada caractere precisa ter um padrão no LedGlyphs.
+     *
+     * @param text Texto a ser mostrado.
+     */
+    public void displayText(String text) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Texto vazio");
         }
+        ensureGlyphCapacity(text.length());
+        glyphCount = LedGlyphs.encode(text, glyphs);
+        render();
     }
 
     /**
-     *      Aceita o numero a ser mostrado juntamente com os segmentos correspondentes a posição do dígito.
-     * Em seguida usa o padrão de ativação do parâmetro digit para ativar os segmentos.
-     *
-     * @param digit Numero a ser mostrado.
-     * @param segments Os 7 segmentos do dígito ordenados corretamente.
+     *      Redesenha os dígitos atuais, usado quando a cor ou a escala mudam.
      */
+    private void redraw() {
+        if (glyphCount > 0) {
+            render();
+        }
+    }
 
-    private static void writeDigit(String digit, List<ImageView> segments){
-        System.out.println("Writing number " + digit);
-        List<Boolean> pattern = LedDisplay.numberPatterns.get(digit); // Padrão de ativação para digit
-        for (int i = 0 ; i < pattern.size(); i++){
-            // Esse loop irá "ativar" os segmentos necessários para formar o número.
-            boolean isOn = pattern.get(i);
-            ImageView currentSegment = segments.get(i);
-            if (isOn){ // Liga
-                currentSegment.setImage(LedDisplay.FULL_SEGMENT_IMAGE);
-            }else { // Desliga
-                currentSegment.setImage(EMPTY_SEGMENT_IMAGE);
-            }
+    private void render() {
+        renderer.render(glyphs, glyphCount, fullSegmentImage.get());
+    }
+
+    private void ensureGlyphCapacity(int length) {
+        if (glyphs.length < length) {
+            glyphs = Arrays.copyOf(glyphs, length);
         }
     }
 
     /**
-     *      Cria uma WritableImage e compara com a imagem base (FULL_SEGMENT_IMAGE) para pintar a nova cor (newColor)
-     * apenas nos pixels que não estejam transparentes.
+     *      Pinta a nova cor (newColor) na imagem original por meio do SegmentTinter, apenas nos pixels que não estejam
+     * transparentes. Cores já usadas são buscadas no TintCache do LedAssets em vez de serem pintadas de novo.
+     *
+     *      Mudanças rápidas de cor são agrupadas, somente a última cor pedida vence: existe no máximo uma pintura
+     * agendada por vez, e uma pintura cuja cor foi trocada enquanto ela acontecia é descartada antes de ser publicada.
      *
      * @param newColor Cor a ser pintada nos pixels não transparentes.
      */
-    public static void changeColor(Color newColor){
-        // Implementação concorrente para melhor performance.
-        ExecutorService exec =  Executors.newSingleThreadExecutor();
-        exec.execute(()->{
-            WritableImage writableImage = new WritableImage((int)FULL_SEGMENT_IMAGE.getWidth(),
-                    (int)FULL_SEGMENT_IMAGE.getHeight());
-            PixelWriter writer = writableImage.getPixelWriter();
-            PixelReader reader = FULL_SEGMENT_IMAGE.getPixelReader(); // Leitor para saber qual píxel é transparente
-
-            Color emptyPixel = reader.getColor(0,0); // O pixel na posição (0, 0) é transparente
-            for (int y = 0 ; y < FULL_SEGMENT_IMAGE.getHeight() ; y++){ // Itera sobre todos os pixels na Vertical
-                for (int x = 0; x < FULL_SEGMENT_IMAGE.getWidth(); x++){ // Itera sobre todos os pixels na Horizontal
-                    if (!reader.getColor(x, y).toString().equals(emptyPixel.toString())){
-                        // Se o pixel atual estiver pintado a condição será verdadeira
-                        writer.setColor(x, y, newColor); // Pinta o pixel na WritableImage
-                    }
-                }
-            }
-            FULL_SEGMENT_IMAGE = writableImage;
-            // Atualiza o número exibido no display para a nova cor.
-            Platform.runLater(()->displayNumber(Integer.parseInt(number), true));
-            exec.shutdown();
-        });
+    public void changeColor(Color newColor){
+        requestedColor.set(newColor);
+        if (recoloring.compareAndSet(false, true)) {
+            // Implementação concorrente para melhor performance.
+            TaskScheduler.execute(this::recolor);
+        }
     }
 
     /**
-     *      Retorna o número que está sendo exibido
-     * @return Número que está sendo exibido
+     *      Pinta a última cor pedida até que nenhuma cor nova tenha chegado durante a pintura. Só então a imagem é
+     * publicada.
      */
-    public String getNumber() {
-        return number;
+    private void recolor() {
+        while (true) {
+            Color color = requestedColor.get();
+            long start = System.nanoTime();
+            Image tinted = assets.tint(color);
+            Metrics.RECOLOR.recordSince(start);
+            if (requestedColor.get() != color) { // Cor trocada durante a pintura, resultado descartado
+                continue;
+            }
+            publish(tinted);
+            recoloring.set(false);
+            // Uma cor pode ter chegado entre a publicação e a liberação da flag
+            if (requestedColor.get() == color || !recoloring.compareAndSet(false, true)) {
+                return;
+            }
+        }
     }
 
-    private static final class LedNumber {
-        private static final List<Boolean> ZERO;
-        private static final List<Boolean> ONE;
-        private static final List<Boolean> TWO;
-        private static final List<Boolean> THREE;
-        private static final List<Boolean> FOUR;
-        private static final List<Boolean> FIVE;
-        private static final List<Boolean> SIX;
-        private static final List<Boolean> SEVEN;
-        private static final List<Boolean> EIGHT;
-        private static final List<Boolean> NINE;
-
-        static{
-            // Padrões de ativação dos 7 segmentos para os respectivos números.
-            ZERO = List.of(false, true, true, true, true, true, true);
-            ONE = List.of(false, false, true, true, false, false, false);
-            TWO = List.of(true, true, true, false, true, true, false);
-            THREE = List.of(true, true, true, true, true, false, false);
-            FOUR = List.of(true, false, true, true, false, false, true);
-            FIVE = List.of(true, true, false, true, true, false, true);
-            SIX = List.of(true, true, false, true, true, true, true);
-            SEVEN = List.of(false, true, true, true, false, false, false);
-            EIGHT = List.of(true, true, true, true, true, true, true);
-            NINE = List.of(true, true, true, true, false, false, true);
+    /**
+     *      Troca a imagem com cor de forma atômica e agenda um único redesenho do display, caso a imagem tenha mudado
+     * e nenhum redesenho esteja pendente.
+     * @param tinted Nova imagem com cor.
+     */
+    private void publish(Image tinted) {
+        if (fullSegmentImage.getAndSet(tinted) == tinted) { // Nada mudou
+            return;
         }
+        if (redrawScheduled.compareAndSet(false, true)) {
+            // Atualiza o número exibido no display para a nova cor.
+            FxProfiler.runLater("led.redraw", () -> {
+                redrawScheduled.set(false);
+                redraw();
+            });
+        }
+    }
+
+    /**
+     *      Retorna o último número exibido
+     * @return Último número exibido
+     */
+    public int getNumber() {
+        return number;
     }
 }
@@ -0,0 +1,86 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ *      Padrões de ativação dos 7 segmentos como máscaras de bits: o bit i indica se o segmento i (na ordem descrita no
+ *  LedDisplay) deve estar ligado. Além dos dígitos hexadecimais existem padrões para algumas letras e para o sinal de
+ *  menos, indexados pelo próprio caractere.
+ *
+ *  A conversão de um número ou texto em máscaras não depende do JavaFX, então pode ser usada (e medida) fora da UI.
+ */
+public final class LedGlyphs {
+    // Padrões de ativação dos dígitos 0 - 9 e A - F.
+    private static final byte[] DIGITS = {
+            0x7E, 0x0C, 0x37, 0x1F, 0x4D, 0x5B, 0x7B, 0x0E, 0x7F, 0x4F, // 0 - 9
+            0x6F, 0x79, 0x72, 0x3D, 0x73, 0x63 // A b C d E F
+    };
+    private static final byte UNDEFINED = -1;
+    private static final byte[] GLYPHS = new byte[128]; // Padrões indexados pelo caractere ASCII
+
+    private LedGlyphs() { // Sem instânciação
+    }
+
+    static{
+        Arrays.fill(GLYPHS, UNDEFINED);
+        for (int i = 0; i < DIGITS.length; i++) {
+            char c = Character.forDigit(i, 16);
+            GLYPHS[c] = DIGITS[i];
+            GLYPHS[Character.toUpperCase(c)] = DIGITS[i];
+        }
+        GLYPHS[' '] = 0x00;
+        GLYPHS['-'] = 0x01;
+        GLYPHS['H'] = 0x6D;
+        GLYPHS['L'] = 0x70;
+        GLYPHS['n'] = 0x29;
+        GLYPHS['o'] = 0x39;
+        GLYPHS['P'] = 0x67;
+        GLYPHS['r'] = 0x21;
+        GLYPHS['t'] = 0x71;
+        GLYPHS['U'] = 0x7C;
+    }
+
+    /**
+     *      Retorna o padrão de ativação do caractere.
+     * @param c Caractere a ser mostrado.
+     * @return Máscara de 7 bits.
+     */
+    public static byte glyph(char c) {
+        if (c >= GLYPHS.length || GLYPHS[c] == UNDEFINED) {
+            throw new IllegalArgumentException("Caractere sem padrão de ativação: " + c);
+        }
+        return GLYPHS[c];
+    }
+
+    /**
+     *      Escreve as máscaras dos dígitos do número. Os dígitos são retirados de trás para frente, sem conversão
+     *  para String.
+     * @param number Número a ser convertido.
+     * @param masks Destino das máscaras, com pelo menos GameConfig.digitCount(number) posições.
+     * @return Quantidade de máscaras escritas.
+     */
+    public static int encode(int number, byte[] masks) {
+        boolean negative = number < 0;
+        long value = Math.abs((long) number);
+        int digitQuantity = GameConfig.digitCount(number);
+        for (int i = digitQuantity - 1; i >= (negative ? 1 : 0); i--) {
+            masks[i] = DIGITS[(int) (value % 10)];
+            value /= 10;
+        }
+        if (negative) masks[0] = GLYPHS['-'];
+        return digitQuantity;
+    }
+
+    /**
+     *      Escreve as máscaras dos caracteres do texto.
+     * @param text Texto a ser convertido, cada caractere precisa ter um padrão.
+     * @param masks Destino das máscaras, com pelo menos text.length() posições.
+     * @return Quantidade de máscaras escritas.
+     */
+    public static int encode(CharSequence text, byte[] masks) {
+        for (int i = 0; i < text.length(); i++) {
+            masks[i] = glyph(text.charAt(i));
+        }
+        return text.length();
+    }
+}
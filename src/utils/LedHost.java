@@ -0,0 +1,36 @@
+package utils;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.ImageView;
+
+import java.util.List;
+
+/**
+ *      Tela onde um LedDisplay é mostrado com os dígitos de ImageView's do MainScreen.fxml ou com um Canvas (ver
+ *  LedDisplay.forHost()). O LedDisplay só acessa a tela por meio desta interface, implementada pelo Controller.
+ */
+public interface LedHost {
+    /**
+     *      Adiciona ou retira dígitos do final até que a quantidade de dígitos seja igual ao parâmetro.
+     * @param digitQuantity Número de dígitos a ser colocado
+     */
+    void createNewDigits(int digitQuantity);
+
+    /**
+     * @param digitIndex Índice do dígito
+     * @return Os 7 segmentos do dígito, na ordem descrita no LedDisplay
+     */
+    List<ImageView> getSegments(int digitIndex);
+
+    /**
+     *      Aumenta o tamanho dos dígitos de ImageView's.
+     * @param rate Taxa de aumento de escala, 1 = escala original
+     */
+    void scaleNumberBox(double rate);
+
+    /**
+     *      Troca os dígitos de ImageView's pelo Canvas onde o display será desenhado.
+     * @param canvas Canvas do display
+     */
+    void showCanvas(Canvas canvas);
+}
@@ -0,0 +1,33 @@
+package utils;
+
+import javafx.scene.image.Image;
+
+/**
+ *      Forma de desenhar o display de LED. O LedDisplay decide quais padrões de ativação devem ser mostrados e o
+ *  LedRenderer os coloca na tela. Existem duas implementações:
+ *
+ *  - ImageViewRenderer: usa as ImageView's de cada dígito definidas no MainScreen.fxml (padrão).
+ *  - CanvasRenderer: desenha todos os dígitos em um único Canvas com imagens de segmento pré-rasterizadas para cada
+ *      escala, o que diminui a quantidade de Nodes na cena.
+ *
+ *  Os padrões de ativação são máscaras de 7 bits, o bit i indica se o segmento i está ligado (ordem descrita no
+ *  LedDisplay). Os métodos são sempre chamados na thread do JavaFX.
+ */
+public interface LedRenderer {
+    int SEGMENT_COUNT = 7; // Quantidade de segmentos em cada dígito
+    int ALL_SEGMENTS = (1 << SEGMENT_COUNT) - 1; // Máscara com todos os segmentos
+
+    /**
+     *      Desenha os dígitos.
+     * @param masks Padrões de ativação de cada dígito, da esquerda para a direita.
+     * @param count Quantidade de dígitos em masks a serem desenhados.
+     * @param fullImage Imagem com cor usada nos segmentos ligados.
+     */
+    void render(byte[] masks, int count, Image fullImage);
+
+    /**
+     *      Muda o tamanho do display.
+     * @param scale Escala, 1 = escala original.
+     */
+    void setScale(double scale);
+}
@@ -0,0 +1,109 @@
+package utils;
+
+import java.io.PrintStream;
+import java.time.Instant;
+
+/**
+ *      Log estruturado com níveis, no lugar dos System.out.println e printStackTrace espalhados pelo projeto. Cada
+ *  linha tem o formato:
+ *
+ *      2026-01-01T12:00:00Z level=INFO thread=guess-io-1 event=fetch.value value=42
+ *
+ *  O nível mínimo é escolhido pela propriedade de sistema guess.log.level (ERROR, WARN, INFO, DEBUG ou OFF, padrão
+ *  INFO). Mensagens abaixo do nível são descartadas antes de qualquer formatação, e os métodos com campos fixos evitam
+ *  o array de varargs.
+ */
+public final class Log {
+    public enum Level {OFF, ERROR, WARN, INFO, DEBUG}
+
+    private static volatile Level level = parseLevel(System.getProperty("guess.log.level", "INFO"));
+    private static final PrintStream out = System.out;
+
+    private Log() { // Sem instânciação
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @param messageLevel Nível da mensagem.
+     * @return true caso mensagens desse nível sejam escritas.
+     */
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel != Level.OFF && messageLevel.ordinal() <= level.ordinal();
+    }
+
+    public static void debug(String event, String key, Object value) {
+        if (isEnabled(Level.DEBUG)) write(Level.DEBUG, event, null, key, value);
+    }
+
+    public static void info(String event) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, null);
+    }
+
+    public static void info(String event, String key, Object value) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, null, key, value);
+    }
+
+    /**
+     * @param fields Pares de chave e valor.
+     */
+    public static void info(String event, Object... fields) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, null, fields);
+    }
+
+    public static void warn(String event, String key, Object value) {
+        if (isEnabled(Level.WARN)) write(Level.WARN, event, null, key, value);
+    }
+
+    public static void error(String event, Throwable error) {
+        if (isEnabled(Level.ERROR)) write(Level.ERROR, event, error);
+    }
+
+    private static void write(Level messageLevel, String event, Throwable error, Object... fields) {
+        StringBuilder line = new StringBuilder(96)
+                .append(Instant.now())
+                .append(" level=").append(messageLevel)
+                .append(" thread=").append(Thread.currentThread().getName())
+                .append(" event=").append(event);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            appendValue(line, fields[i + 1]);
+        }
+        if (error != null) {
+            line.append(" error=");
+            appendValue(line, error.toString());
+        }
+        synchronized (out) {
+            out.println(line);
+            if (error != null && isEnabled(Level.DEBUG)) { // Pilha completa só no nível DEBUG
+                error.printStackTrace(out);
+            }
+        }
+    }
+
+    /**
+     *      Valores com espaço ficam entre aspas, para que a linha continue podendo ser dividida por espaços.
+     */
+    private static void appendValue(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        if (text.indexOf(' ') < 0 && text.indexOf('"') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\\\"")).append('"');
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
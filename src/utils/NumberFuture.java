@@ -0,0 +1,31 @@
+package utils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *      Future de um número que guarda junto a falha que levou ao uso da fonte reserva. Cada next() do
+ *  ResilientNumberSource devolve um, então quem pediu o número sabe de onde ele veio sem depender dos pedidos de
+ *  outros jogos. Lido por NumberSource.degradedCause().
+ */
+final class NumberFuture extends CompletableFuture<Integer> {
+    private volatile HttpNumberException degradedCause;
+
+    /**
+     *      Completa com o número, caso o future ainda não tenha sido completado. A causa é gravada antes, para que
+     *  quem espera o número já a encontre, e só por quem de fato completa o future.
+     * @param value Número obtido.
+     * @param degradedCause Falha que levou à fonte reserva, ou null caso o número venha da fonte principal.
+     * @return true caso este número tenha completado o future.
+     */
+    synchronized boolean complete(int value, HttpNumberException degradedCause) {
+        if (isDone()) {
+            return false;
+        }
+        this.degradedCause = degradedCause;
+        return complete(value);
+    }
+
+    HttpNumberException getDegradedCause() {
+        return degradedCause;
+    }
+}
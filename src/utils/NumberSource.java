@@ -0,0 +1,89 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *      Fonte dos números das partidas. Existem três implementações:
+ *
+ *  - HttpNumber: busca os números no servidor remoto (o padrão).
+ *  - RandomNumberSource: sorteia os números no próprio processo, sem acessar a rede.
+ *  - StubNumberServer: sobe um servidor HTTP embutido que responde o mesmo json do servidor remoto, com atraso e erros
+ *      configuráveis, e busca os números nele pelo HttpNumber. Serve para testar o caminho HTTP sem internet.
+ *
+ *  A fonte usada pela aplicação é escolhida pela propriedade de sistema guess.numbers (ver fromConfig()). As fontes
+ *  HTTP são protegidas por um ResilientNumberSource, a não ser que a propriedade guess.resilience seja false.
+ */
+public interface NumberSource extends AutoCloseable {
+    URI REMOTE_URI = URI.create("https://us-central1-ss-devops.cloudfunctions.net/rand");
+
+    /**
+     *      Pede um novo número dentro do intervalo do GameConfig.
+     * @return Future completado com o número, ou com uma HttpNumberException caso ele não possa ser obtido.
+     */
+    CompletableFuture<Integer> next();
+
+    /**
+     *      Prepara a fonte para o primeiro next() (ex: abre a conexão e busca os primeiros números), sem esperar.
+     *  Por padrão não faz nada.
+     */
+    default void warmUp() {
+    }
+
+    /**
+     *      Libera os recursos da fonte (threads, servidores). Por padrão não faz nada.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     *      Cria a fonte escolhida pela propriedade de sistema guess.numbers:
+     *
+     *  - remote (padrão): HttpNumber no endereço da propriedade guess.numbers.url, ou no servidor da prova.
+     *  - local: RandomNumberSource com SplittableRandom.
+     *  - secure: RandomNumberSource com SecureRandom.
+     *  - stub: StubNumberServer em uma porta livre, configurado pelas propriedades guess.stub.*.
+     * @return Fonte criada.
+     */
+    static NumberSource fromConfig() {
+        String type = System.getProperty("guess.numbers", "remote");
+        switch (type) {
+            case "remote":
+                String url = System.getProperty("guess.numbers.url");
+                return resilient(new HttpNumber(url == null ? REMOTE_URI : URI.create(url)));
+            case "local":
+                return new RandomNumberSource(false);
+            case "secure":
+                return new RandomNumberSource(true);
+            case "stub":
+                try {
+                    return resilient(StubNumberServer.fromConfig());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Servidor de números embutido não pôde ser iniciado", e);
+                }
+            default:
+                throw new IllegalArgumentException("Fonte de números desconhecida: " + type);
+        }
+    }
+
+    /**
+     *      Indica se o número veio de uma fonte reserva por causa de uma falha da fonte principal (ver
+     *  ResilientNumberSource), para que a UI mostre o erro mesmo com a partida funcionando. A falha pertence ao
+     *  future, então pedidos de jogos diferentes não se misturam.
+     * @param number Future retornado por next(), já completado.
+     * @return Falha que levou ao uso da fonte reserva, ou null caso o número tenha vindo da fonte principal.
+     */
+    static HttpNumberException degradedCause(CompletableFuture<Integer> number) {
+        return number instanceof NumberFuture ? ((NumberFuture) number).getDegradedCause() : null;
+    }
+
+    private static NumberSource resilient(NumberSource source) {
+        if (!Boolean.parseBoolean(System.getProperty("guess.resilience", "true"))) {
+            return source;
+        }
+        return ResilientNumberSource.fromConfig(source);
+    }
+}
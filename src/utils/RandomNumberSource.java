@@ -0,0 +1,52 @@
+package utils;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *      Sorteia os números no próprio processo, dentro do intervalo do GameConfig, e entrega um Future já completado.
+ *
+ *  No modo rápido cada thread usa o seu próprio SplittableRandom, dividido (split()) a partir de um gerador raiz,
+ *  então não há disputa entre threads. No modo seguro é usado um SecureRandom compartilhado, que já é thread-safe.
+ */
+public final class RandomNumberSource implements NumberSource {
+    private final SplittableRandom root = new SplittableRandom();
+    private final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(this::split);
+    private final SecureRandom secureRandom;
+
+    /**
+     * @param secure true para usar SecureRandom em vez de SplittableRandom.
+     */
+    public RandomNumberSource(boolean secure) {
+        this.secureRandom = secure ? new SecureRandom() : null;
+    }
+
+    @Override
+    public CompletableFuture<Integer> next() {
+        return CompletableFuture.completedFuture(nextInt(GameConfig.getMin(), GameConfig.getMax()));
+    }
+
+    /**
+     *      Sorteia um número entre min e max, inclusive.
+     * @param min Menor número.
+     * @param max Maior número.
+     * @return Número sorteado.
+     */
+    public int nextInt(int min, int max) {
+        long range = (long) max - min + 1;
+        if (secureRandom == null) {
+            return (int) random.get().nextLong(min, min + range);
+        }
+        if (range <= Integer.MAX_VALUE) {
+            return min + secureRandom.nextInt((int) range);
+        }
+        return (int) (min + Math.floorMod(secureRandom.nextLong(), range));
+    }
+
+    private SplittableRandom split() {
+        synchronized (root) { // SplittableRandom não é thread-safe
+            return root.split();
+        }
+    }
+}
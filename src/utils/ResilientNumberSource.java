@@ -0,0 +1,249 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *      Camada de resiliência em volta de uma NumberSource remota, para que um servidor lento ou falhando não deixe a
+ *  partida sem número:
+ *
+ *  - Requests duplicados (hedging): se a resposta demorar mais que o p95 das latências recentes, um segundo request é
+ *      enviado e vale a primeira resposta que chegar.
+ *  - Novas tentativas: falhas de conexão, tempo limite e códigos 5xx são tentadas de novo até maxRetries vezes, com
+ *      espera exponencial aleatória (full jitter) entre elas. Códigos 4xx não são tentados de novo.
+ *  - Disjuntor: após várias falhas seguidas o CircuitBreaker abre e a fonte remota deixa de ser chamada por um tempo.
+ *  - Fonte reserva: com o disjuntor aberto, as tentativas esgotadas ou o prazo total (deadline) estourado, o número
+ *      vem da fonte reserva (normalmente um RandomNumberSource), então o tempo para obter um número é limitado. A
+ *      falha viaja junto com o número (ver NumberSource.degradedCause()) para que a UI mostre que a partida usa a
+ *      fonte reserva.
+ *
+ *  Os valores podem ser configurados pelas propriedades de sistema guess.resilience.* (ver fromConfig()).
+ */
+public final class ResilientNumberSource implements NumberSource {
+    private static final long BACKOFF_BASE = 50; // Espera da primeira nova tentativa em milissegundos (máxima)
+    private static final long BACKOFF_MAX = 1000;
+    private static final long HEDGE_MIN = 50, HEDGE_MAX = 2000; // Limites do atraso do request duplicado
+    private static final long HEDGE_DEFAULT = 300; // Atraso usado enquanto não há latências suficientes
+
+    private final NumberSource primary;
+    private final NumberSource fallback;
+    private final CircuitBreaker breaker;
+    private final int maxRetries;
+    private final long deadline; // Prazo total de um next() em milissegundos
+    private final LatencyWindow latencies = new LatencyWindow(128);
+
+    /**
+     * @param primary Fonte protegida, normalmente o HttpNumber.
+     * @param fallback Fonte reserva, ou null para completar com o erro da fonte protegida.
+     * @param breaker Disjuntor da fonte protegida.
+     * @param maxRetries Quantidade máxima de novas tentativas.
+     * @param deadline Prazo total em milissegundos até a fonte reserva ser usada.
+     */
+    public ResilientNumberSource(NumberSource primary, NumberSource fallback, CircuitBreaker breaker, int maxRetries,
+                                 long deadline) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.breaker = breaker;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.deadline = deadline;
+    }
+
+    /**
+     *      Protege a fonte com as propriedades guess.resilience.retries (2), guess.resilience.deadline (3000 ms),
+     *  guess.resilience.failures (5) e guess.resilience.openTime (10000 ms), usando um RandomNumberSource como reserva.
+     * @param primary Fonte protegida.
+     * @return Fonte protegida.
+     */
+    static ResilientNumberSource fromConfig(NumberSource primary) {
+        CircuitBreaker breaker = new CircuitBreaker(Integer.getInteger("guess.resilience.failures", 5),
+                Long.getLong("guess.resilience.openTime", 10000), TimeUnit.MILLISECONDS);
+        return new ResilientNumberSource(primary, new RandomNumberSource(false), breaker,
+                Integer.getInteger("guess.resilience.retries", 2), Long.getLong("guess.resilience.deadline", 3000));
+    }
+
+    @Override
+    public CompletableFuture<Integer> next() {
+        NumberFuture result = new NumberFuture();
+        if (!breaker.allowRequest()) { // Disjuntor aberto
+            useFallback(result, new HttpNumberException(0, "Fonte de números indisponível"));
+            return result;
+        }
+        ScheduledFuture<?> deadlineTask = TaskScheduler.schedule(
+                () -> useFallback(result, new HttpNumberException(0, "Prazo para obter o número esgotado")),
+                deadline, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> deadlineTask.cancel(false));
+        attempt(result, 0);
+        return result;
+    }
+
+    @Override
+    public void warmUp() {
+        primary.warmUp();
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+
+    /**
+     *      Faz uma tentativa, com um request duplicado caso a resposta demore, e agenda a próxima caso ela falhe.
+     * @param result Future entregue pelo next().
+     * @param retry Quantidade de tentativas já feitas.
+     */
+    private void attempt(NumberFuture result, int retry) {
+        if (result.isDone()) { // Prazo esgotado
+            return;
+        }
+        CompletableFuture<Integer> attempt = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1); // Requests desta tentativa ainda sem resposta
+        CompletableFuture<Integer> first = call();
+        forward(first, attempt, running);
+        if (!first.isDone()) {
+            ScheduledFuture<?> hedge = TaskScheduler.schedule(() -> {
+                if (!attempt.isDone() && breaker.allowRequest()) {
+                    running.incrementAndGet();
+                    forward(call(), attempt, running);
+                }
+            }, latencies.hedgeDelay(), TimeUnit.MILLISECONDS);
+            attempt.whenComplete((value, error) -> hedge.cancel(false));
+        }
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value, null);
+            } else if (retry < maxRetries && isRetryable(error) && breaker.allowRequest()) {
+                TaskScheduler.schedule(() -> attempt(result, retry + 1), backoff(retry), TimeUnit.MILLISECONDS);
+            } else {
+                useFallback(result, error);
+            }
+        });
+    }
+
+    /**
+     *      Chama a fonte protegida, registrando no disjuntor o resultado e a latência apenas das respostas que não
+     *  vieram prontas: números do pool do HttpNumber chegam na hora e não dizem nada sobre o servidor, e contar esses
+     *  sucessos fecharia o disjuntor enquanto as buscas reais falham. Uma resposta pronta devolve a chamada de teste
+     *  ao disjuntor, senão ele ficaria em HALF_OPEN esperando um resultado que nunca vem.
+     */
+    private CompletableFuture<Integer> call() {
+        long start = System.nanoTime();
+        CompletableFuture<Integer> request = primary.next();
+        if (request.isDone()) {
+            breaker.onSkipped();
+            return request;
+        }
+        request.whenComplete((value, error) -> {
+            if (error != null) {
+                breaker.onFailure();
+                return;
+            }
+            breaker.onSuccess();
+            latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+        return request;
+    }
+
+    /**
+     *      Completa a tentativa com a primeira resposta de sucesso, ou com o erro caso todos os requests falhem.
+     */
+    private static void forward(CompletableFuture<Integer> request, CompletableFuture<Integer> attempt,
+                                AtomicInteger running) {
+        request.whenComplete((value, error) -> {
+            if (error == null) {
+                attempt.complete(value);
+            } else if (running.decrementAndGet() == 0) {
+                attempt.completeExceptionally(error);
+            }
+        });
+    }
+
+    private void useFallback(NumberFuture result, Throwable error) {
+        if (result.isDone()) {
+            return;
+        }
+        if (fallback == null) {
+            result.completeExceptionally(error);
+            return;
+        }
+        fallback.next().whenComplete((value, fallbackError) -> {
+            if (fallbackError == null) {
+                HttpNumberException cause = toHttpNumberException(error);
+                if (result.complete(value, cause)) {
+                    Log.warn("numbers.fallback", "cause", cause.getMessage());
+                }
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private static HttpNumberException toHttpNumberException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpNumberException ? (HttpNumberException) cause : new HttpNumberException(0, cause);
+    }
+
+    /**
+     *      Erros de cliente (4xx) não mudam ao tentar de novo, os demais (conexão, tempo limite, 5xx) podem mudar.
+     */
+    private static boolean isRetryable(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpNumberException) {
+            int code = ((HttpNumberException) cause).getHttpCode();
+            return code < 400 || code >= 500;
+        }
+        return true;
+    }
+
+    /**
+     *      Espera aleatória entre 0 e BACKOFF_BASE * 2^retry, limitada a BACKOFF_MAX (full jitter).
+     */
+    private static long backoff(int retry) {
+        long ceiling = Math.min(BACKOFF_MAX, BACKOFF_BASE << Math.min(retry, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     *      Últimas latências do servidor em um buffer circular, usadas para calcular o atraso do request duplicado.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private final long[] sorted; // Cópia ordenada, reutilizada a cada cálculo
+        private int count, next;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+            this.sorted = new long[size];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * @return p95 das latências recentes, limitado entre HEDGE_MIN e HEDGE_MAX.
+         */
+        synchronized long hedgeDelay() {
+            if (count < 20) { // Poucas amostras para um p95 confiável
+                return HEDGE_DEFAULT;
+            }
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            long p95 = sorted[(int) Math.ceil(count * 0.95) - 1];
+            return Math.max(HEDGE_MIN, Math.min(HEDGE_MAX, p95));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *      Pinta uma imagem de segmento com uma nova cor. Todos os pixels são lidos de uma vez para um int[] no formato
+ *  ARGB, e cada pixel cujo alpha seja diferente do alpha do pixel (0, 0), que é transparente, recebe a nova cor.
+ *  O resultado é escrito de uma vez na WritableImage.
+ *
+ *  Imagens grandes são divididas em faixas de linhas pintadas em paralelo no ForkJoinPool comum, imagens pequenas
+ *  (como os segmentos padrão) são pintadas na própria thread, pois dividir custaria mais que pintar.
+ */
+public final class SegmentTinter {
+    private static final int MIN_PIXELS_PER_BAND = 64 * 1024; // Tamanho mínimo de uma faixa em pixels
+
+    private SegmentTinter() { // Sem instânciação
+    }
+
+    /**
+     *      Cria uma cópia da imagem com os pixels não transparentes pintados com a cor passada.
+     * @param source Imagem original, não é alterada.
+     * @param newColor Cor a ser pintada.
+     * @return Nova imagem pintada.
+     */
+    public static Image tint(Image source, Color newColor) {
+        int width = (int) source.getWidth();
+        int height = (int) source.getHeight();
+        int[] pixels = new int[width * height];
+        PixelReader reader = source.getPixelReader();
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+
+        int emptyAlpha = pixels[0] >>> 24; // O pixel na posição (0, 0) é transparente
+        int argb = toArgb(newColor);
+        TintTask task = new TintTask(pixels, width, 0, height, emptyAlpha, argb);
+        if (pixels.length < 2 * MIN_PIXELS_PER_BAND) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+
+        WritableImage writableImage = new WritableImage(width, height);
+        writableImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0,
+                width);
+        return writableImage;
+    }
+
+    /**
+     *      Converte a cor do JavaFX para um int ARGB.
+     * @param color Cor a ser convertida.
+     * @return Cor no formato ARGB.
+     */
+    static int toArgb(Color color) {
+        int a = (int) Math.round(color.getOpacity() * 255);
+        int r = (int) Math.round(color.getRed() * 255);
+        int g = (int) Math.round(color.getGreen() * 255);
+        int b = (int) Math.round(color.getBlue() * 255);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     *      Pinta as linhas [startRow, endRow) do array, se dividindo em duas faixas enquanto elas forem grandes.
+     */
+    private static final class TintTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] pixels;
+        private final int width, startRow, endRow, emptyAlpha, argb;
+
+        TintTask(int[] pixels, int width, int startRow, int endRow, int emptyAlpha, int argb) {
+            this.pixels = pixels;
+            this.width = width;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.emptyAlpha = emptyAlpha;
+            this.argb = argb;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = endRow - startRow;
+            if (rows > 1 && rows * width >= 2 * MIN_PIXELS_PER_BAND) { // Divide em duas faixas
+                int middle = startRow + rows / 2;
+                invokeAll(new TintTask(pixels, width, startRow, middle, emptyAlpha, argb),
+                        new TintTask(pixels, width, middle, endRow, emptyAlpha, argb));
+                return;
+            }
+            int end = endRow * width;
+            for (int i = startRow * width; i < end; i++) {
+                if (pixels[i] >>> 24 != emptyAlpha) { // Pixel pintado
+                    pixels[i] = argb;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ *      Cria as imagens de segmento (sprites) usadas pelo CanvasRenderer já no tamanho final, para que o Canvas apenas
+ *  copie os pixels em vez de redimensionar a imagem a cada desenho. O redimensionamento é bilinear, feito sobre um
+ *  int[] ARGB, e os segmentos verticais são gerados girando a imagem em 90 graus no sentido horário (assim como o
+ *  rotate="90.0" do MainScreen.fxml).
+ */
+final class SpriteRasterizer {
+    private SpriteRasterizer() { // Sem instânciação
+    }
+
+    /**
+     *      Cria uma cópia da imagem com o novo tamanho, podendo também girá-la.
+     * @param source Imagem original.
+     * @param width Largura final antes da rotação.
+     * @param height Altura final antes da rotação.
+     * @param rotate Indica se a imagem deve ser girada em 90 graus no sentido horário.
+     * @return Nova imagem, com tamanho height x width caso tenha sido girada.
+     */
+    static Image rasterize(Image source, int width, int height, boolean rotate) {
+        int sourceWidth = (int) source.getWidth();
+        int sourceHeight = (int) source.getHeight();
+        int[] sourcePixels = new int[sourceWidth * sourceHeight];
+        source.getPixelReader().getPixels(0, 0, sourceWidth, sourceHeight, PixelFormat.getIntArgbInstance(),
+                sourcePixels, 0, sourceWidth);
+
+        int[] scaled = scale(sourcePixels, sourceWidth, sourceHeight, width, height);
+        int outWidth = width, outHeight = height;
+        if (rotate) {
+            int[] rotated = new int[scaled.length];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    // O pixel (x, y) vai para a coluna (height - 1 - y) e linha x
+                    rotated[x * height + (height - 1 - y)] = scaled[y * width + x];
+                }
+            }
+            scaled = rotated;
+            outWidth = height;
+            outHeight = width;
+        }
+
+        WritableImage sprite = new WritableImage(outWidth, outHeight);
+        sprite.getPixelWriter().setPixels(0, 0, outWidth, outHeight, PixelFormat.getIntArgbInstance(), scaled, 0,
+                outWidth);
+        return sprite;
+    }
+
+    /**
+     *      Redimensiona os pixels por interpolação bilinear, canal por canal.
+     */
+    private static int[] scale(int[] pixels, int sourceWidth, int sourceHeight, int width, int height) {
+        int[] out = new int[width * height];
+        double xRatio = (double) sourceWidth / width;
+        double yRatio = (double) sourceHeight / height;
+        for (int y = 0; y < height; y++) {
+            double sy = Math.max(0, (y + 0.5) * yRatio - 0.5);
+            int y0 = Math.min((int) sy, sourceHeight - 1);
+            int y1 = Math.min(y0 + 1, sourceHeight - 1);
+            double fy = sy - y0;
+            for (int x = 0; x < width; x++) {
+                double sx = Math.max(0, (x + 0.5) * xRatio - 0.5);
+                int x0 = Math.min((int) sx, sourceWidth - 1);
+                int x1 = Math.min(x0 + 1, sourceWidth - 1);
+                double fx = sx - x0;
+                int p00 = pixels[y0 * sourceWidth + x0], p01 = pixels[y0 * sourceWidth + x1];
+                int p10 = pixels[y1 * sourceWidth + x0], p11 = pixels[y1 * sourceWidth + x1];
+                int argb = 0;
+                for (int shift = 0; shift < 32; shift += 8) {
+                    double top = ((p00 >>> shift) & 0xFF) * (1 - fx) + ((p01 >>> shift) & 0xFF) * fx;
+                    double bottom = ((p10 >>> shift) & 0xFF) * (1 - fx) + ((p11 >>> shift) & 0xFF) * fx;
+                    argb |= ((int) Math.round(top * (1 - fy) + bottom * fy) & 0xFF) << shift;
+                }
+                out[y * width + x] = argb;
+            }
+        }
+        return out;
+    }
+}
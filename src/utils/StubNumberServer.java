@@ -0,0 +1,167 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *      Servidor HTTP embutido (com.sun.net.httpserver) que imita o servidor de números remoto: GET /rand?min=X&max=Y
+ *  responde {"value":N} com N sorteado pelo RandomNumberSource. Cada resposta pode ser atrasada (latency + até
+ *  jitter milissegundos) e uma fração delas (errorRate) pode falhar com o código errorCode.
+ *
+ *  Como NumberSource, ele busca os números em si mesmo por um HttpNumber, assim o caminho HTTP inteiro (cliente,
+ *  pool, parser) é usado sem acessar a internet. Pelo fromConfig() os valores vêm das propriedades de sistema
+ *  guess.stub.port, guess.stub.latency, guess.stub.jitter, guess.stub.errorRate e guess.stub.errorCode.
+ *
+ *  O servidor tem as suas próprias threads (guess-stub-N), separadas das do TaskScheduler usadas pelo HttpClient do
+ *  HttpNumber, e o atraso não bloqueia nenhuma thread: a resposta é agendada no temporizador do TaskScheduler e
+ *  escrita pelas threads do servidor. Assim o atraso simulado não tira threads do cliente que está sendo medido.
+ */
+public final class StubNumberServer implements NumberSource {
+    private static final int THREADS = 2; // Apenas leem o request e escrevem a resposta, nunca esperam
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RandomNumberSource random = new RandomNumberSource(false);
+    private final long latency, jitter;
+    private final double errorRate;
+    private final int errorCode;
+    private final HttpNumber client;
+
+    /**
+     * @param port Porta do servidor, 0 para uma porta livre.
+     * @param latency Atraso mínimo de cada resposta em milissegundos.
+     * @param jitter Atraso adicional máximo, sorteado para cada resposta, em milissegundos.
+     * @param errorRate Fração das respostas que falham, entre 0 e 1.
+     * @param errorCode Código http das respostas que falham.
+     * @throws IOException Caso a porta não possa ser usada.
+     */
+    public StubNumberServer(int port, long latency, long jitter, double errorRate, int errorCode) throws IOException {
+        this.latency = Math.max(0, latency);
+        this.jitter = Math.max(0, jitter);
+        this.errorRate = errorRate;
+        this.errorCode = errorCode;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/rand", this::handle);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "guess-stub-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        this.client = new HttpNumber(getUri());
+    }
+
+    /**
+     *      Cria o servidor com as propriedades guess.stub.*.
+     * @return Servidor iniciado.
+     * @throws IOException Caso a porta não possa ser usada.
+     */
+    static StubNumberServer fromConfig() throws IOException {
+        return new StubNumberServer(Integer.getInteger("guess.stub.port", 0),
+                Long.getLong("guess.stub.latency", 0), Long.getLong("guess.stub.jitter", 0),
+                Double.parseDouble(System.getProperty("guess.stub.errorRate", "0")),
+                Integer.getInteger("guess.stub.errorCode", 503));
+    }
+
+    @Override
+    public CompletableFuture<Integer> next() {
+        return client.next();
+    }
+
+    @Override
+    public void warmUp() {
+        client.warmUp();
+    }
+
+    /**
+     * @return Endereço do /rand, sem parâmetros.
+     */
+    public URI getUri() {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort() + "/rand");
+    }
+
+    /**
+     *      Para o servidor e o HttpNumber que busca os números nele.
+     */
+    @Override
+    public void close() {
+        client.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     *      Responde na hora ou agenda a resposta para depois do atraso sorteado, sem bloquear a thread do servidor.
+     */
+    private void handle(HttpExchange exchange) {
+        ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+        long delay = latency + (jitter > 0 ? threadRandom.nextLong(jitter + 1) : 0);
+        if (delay == 0) {
+            respond(exchange);
+            return;
+        }
+        TaskScheduler.schedule(() -> executor.execute(() -> respond(exchange)), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void respond(HttpExchange exchange) {
+        try {
+            ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+            if (threadRandom.nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(errorCode, -1);
+                return;
+            }
+            int min = queryInt(exchange.getRequestURI().getRawQuery(), "min", GameConfig.getMin());
+            int max = queryInt(exchange.getRequestURI().getRawQuery(), "max", GameConfig.getMax());
+            if (min > max) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            byte[] body = ("{\"value\":" + random.nextInt(min, max) + "}").getBytes(StandardCharsets.US_ASCII);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) { // Cliente desconectou antes da resposta
+            Log.warn("stub.respond", "error", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     *      Lê um parâmetro inteiro da query, ex: queryInt("min=1&max=300", "max", 0) retorna 300.
+     */
+    private static int queryInt(String query, String name, int defaultValue) {
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator == name.length() && parameter.startsWith(name)) {
+                try {
+                    return Integer.parseInt(parameter.substring(separator + 1));
+                } catch (NumberFormatException e) {
+                    return defaultValue;
+                }
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,163 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *      Agendador de tarefas compartilhado por toda a aplicação. Em vez de cada chamada criar e destruir o seu próprio
+ *  ExecutorService, as tarefas são enviadas para um dos executores abaixo:
+ *
+ *  - Executor de cálculo: poucas threads nomeadas (guess-worker-N) com fila limitada, usado para trabalho de CPU
+ *      como a pintura dos segmentos. Quando a fila enche a tarefa é executada na própria thread que a enviou.
+ *  - Executor bloqueante: usado para trabalho de I/O como os requests do HttpNumber. Se a JVM suportar virtual threads
+ *      (Java 21+) e a propriedade guess.virtualThreads não for false, cada tarefa roda em uma virtual thread, senão
+ *      roda em um pool limitado de threads nomeadas (guess-io-N).
+ *  - Temporizador: uma única thread (guess-timer) para tarefas curtas agendadas, como a remoção de jogos inativos e as
+ *      novas tentativas do ResilientNumberSource.
+ *
+ *  Todas as threads são daemon, e o método shutdown() é chamado pelo Main quando a aplicação é encerrada.
+ */
+public final class TaskScheduler {
+    private static final int QUEUE_CAPACITY = 64; // Tamanho máximo das filas de tarefas
+    private static final int WORKER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final int IO_THREADS = 8;
+    private static final long SHUTDOWN_TIMEOUT = 2000; // Tempo de espera no encerramento em milissegundos
+
+    private static final ExecutorService workerExecutor = newBoundedExecutor("guess-worker-", WORKER_THREADS);
+    private static final ExecutorService blockingExecutor = newBlockingExecutor();
+    private static final ScheduledExecutorService timer = newTimer();
+
+    private TaskScheduler() { // Sem instânciação
+    }
+
+    /**
+     *      Executa uma tarefa de cálculo no executor compartilhado.
+     * @param task Tarefa a ser executada.
+     */
+    public static void execute(Runnable task) {
+        workerExecutor.execute(task);
+    }
+
+    /**
+     *      Executa uma tarefa bloqueante (I/O) no executor de virtual threads, ou no pool limitado de I/O.
+     * @param task Tarefa a ser executada.
+     */
+    public static void executeBlocking(Runnable task) {
+        blockingExecutor.execute(task);
+    }
+
+    /**
+     *      Executa uma tarefa curta uma única vez na thread do temporizador, depois do atraso.
+     * @param task Tarefa a ser executada.
+     * @param delay Atraso até a execução.
+     * @param unit Unidade do atraso.
+     * @return Future que permite cancelar a tarefa.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(task, delay, unit);
+    }
+
+    /**
+     *      Executa uma tarefa curta periodicamente na thread do temporizador.
+     * @param task Tarefa a ser executada.
+     * @param period Intervalo entre as execuções.
+     * @param unit Unidade do intervalo.
+     * @return Future que permite cancelar a tarefa.
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        return timer.scheduleAtFixedRate(task, period, period, unit);
+    }
+
+    /**
+     *      Retorna o executor de cálculo, para APIs que recebem um Executor.
+     * @return Executor de cálculo.
+     */
+    public static ExecutorService getExecutor() {
+        return workerExecutor;
+    }
+
+    /**
+     *      Retorna o executor bloqueante, para APIs que recebem um Executor.
+     * @return Executor bloqueante.
+     */
+    public static ExecutorService getBlockingExecutor() {
+        return blockingExecutor;
+    }
+
+    /**
+     *      Encerra os executores, esperando um tempo limitado pelas tarefas em andamento.
+     */
+    public static void shutdown() {
+        timer.shutdownNow();
+        workerExecutor.shutdown();
+        blockingExecutor.shutdown();
+        try {
+            if (!workerExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                workerExecutor.shutdownNow();
+            }
+            if (!blockingExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                blockingExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerExecutor.shutdownNow();
+            blockingExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     *      Cria um pool de tamanho fixo com fila limitada e threads daemon nomeadas.
+     * @param prefix Prefixo do nome das threads.
+     * @param threads Quantidade de threads.
+     * @return Executor criado.
+     */
+    private static ExecutorService newBoundedExecutor(String prefix, int threads) {
+        AtomicInteger counter = new AtomicInteger(1);
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     *      Cria o temporizador com uma thread daemon. Tarefas canceladas são removidas da fila imediatamente.
+     * @return Temporizador criado.
+     */
+    private static ScheduledExecutorService newTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "guess-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     *      Cria o executor bloqueante. O método Executors.newVirtualThreadPerTaskExecutor() é procurado por reflexão
+     *  para que o projeto continue compilando com versões do Java sem virtual threads.
+     * @return Executor de virtual threads, ou um pool limitado caso elas não estejam disponíveis.
+     */
+    private static ExecutorService newBlockingExecutor() {
+        if (Boolean.parseBoolean(System.getProperty("guess.virtualThreads", "true"))) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) { // Java sem virtual threads
+            }
+        }
+        return newBoundedExecutor("guess-io-", IO_THREADS);
+    }
+}
@@ -0,0 +1,77 @@
+package utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *      Cache LRU limitado que guarda a imagem de segmento já pintada para cada cor. A imagem original nunca é
+ *  alterada, toda cor é pintada a partir dela, assim trocar entre cores já usadas é apenas uma busca no cache.
+ *  Quando o cache enche, a cor usada há mais tempo é removida.
+ *
+ *  Os contadores de acertos (hits) e faltas (misses) permitem saber o quanto o cache está sendo útil.
+ */
+public final class TintCache {
+    private final Image source; // Imagem original, sem alterações
+    private final Map<Color, Image> images; // Imagens pintadas, em ordem de acesso
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param source Imagem original a partir da qual as cores são pintadas.
+     * @param capacity Quantidade máxima de cores guardadas.
+     */
+    public TintCache(Image source, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacidade do cache deve ser positiva");
+        }
+        this.source = source;
+        this.images = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Color, Image> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     *      Retorna a imagem pintada com a cor passada, pintando a partir da imagem original caso ela não esteja no
+     *  cache. A pintura é feita fora do lock para não bloquear outras buscas.
+     * @param color Cor desejada.
+     * @return Imagem pintada.
+     */
+    public Image get(Color color) {
+        synchronized (images) {
+            Image cached = images.get(color);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        Image tinted = SegmentTinter.tint(source, color);
+        synchronized (images) {
+            images.put(color, tinted);
+        }
+        return tinted;
+    }
+
+    /**
+     *      Retorna a imagem original.
+     * @return Imagem original.
+     */
+    public Image getSource() {
+        return source;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,102 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import utils.CircuitBreaker;
+import utils.HttpNumberException;
+import utils.NumberSource;
+import utils.ResilientNumberSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameEngineTest {
+    private static GameEngine engine() {
+        return new GameEngine(() -> CompletableFuture.completedFuture(50));
+    }
+
+    @Test
+    void evictsOnlyIdleSessions() throws InterruptedException {
+        GameEngine engine = engine();
+        long idle = engine.createSession().getId();
+        long active = engine.createSession().getId();
+        Thread.sleep(50);
+        engine.newRound(active).join(); // Acesso dentro do limite
+        int evicted = engine.evictIdle(25, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, evicted);
+        assertNull(engine.getSession(idle));
+        assertEquals(GuessResult.CORRECT, engine.guess(active, 50));
+        assertEquals(1, engine.getEvictedSessions());
+        assertThrows(IllegalArgumentException.class, () -> engine.guess(idle, 50));
+    }
+
+    @Test
+    void periodicEvictionRemovesIdleSessions() throws InterruptedException {
+        GameEngine engine = engine();
+        for (int i = 0; i < 100; i++) {
+            engine.createSession();
+        }
+        engine.startIdleEviction(20, TimeUnit.MILLISECONDS);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (engine.getSessionCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            engine.stopIdleEviction();
+        }
+        assertEquals(0, engine.getSessionCount());
+        assertEquals(100, engine.getEvictedSessions());
+    }
+
+    @Test
+    void localClientStartsANewSessionAfterEviction() throws Exception {
+        GameEngine engine = engine();
+        LocalGameClient client = new LocalGameClient(engine);
+        long first = client.getSessionId();
+        client.newRound().get(5, TimeUnit.SECONDS);
+        Thread.sleep(5);
+        engine.evictIdle(0, TimeUnit.NANOSECONDS);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> client.guess(50).get());
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+
+        client.newRound().get(5, TimeUnit.SECONDS);
+        assertNotEquals(first, client.getSessionId());
+        assertEquals(GuessResult.CORRECT, client.guess(50).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void pinnedSessionsAreNeverEvicted() throws Exception {
+        GameEngine engine = engine();
+        LocalGameClient ui = new LocalGameClient(engine, true);
+        LocalGameClient player = new LocalGameClient(engine);
+        ui.newRound().get(5, TimeUnit.SECONDS);
+        player.newRound().get(5, TimeUnit.SECONDS);
+        Thread.sleep(5);
+
+        assertEquals(1, engine.evictIdle(0, TimeUnit.NANOSECONDS));
+        assertNull(engine.getSession(player.getSessionId()));
+        assertEquals(GuessResult.CORRECT, ui.guess(50).get(5, TimeUnit.SECONDS)); // Partida continua
+    }
+
+    @Test
+    void fallbackCauseComesWithTheRound() throws Exception {
+        NumberSource failing = () -> CompletableFuture.failedFuture(new HttpNumberException(503, "Erro 503"));
+        GameEngine engine = new GameEngine(new ResilientNumberSource(failing,
+                () -> CompletableFuture.completedFuture(50), new CircuitBreaker(5, 1, TimeUnit.HOURS), 0, 30_000));
+        LocalGameClient degraded = new LocalGameClient(engine);
+        assertEquals(503, degraded.newRound().get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(503, engine.getSession(degraded.getSessionId()).getDegradedCause().getHttpCode());
+
+        LocalGameClient healthy = new LocalGameClient(engine());
+        assertNull(healthy.newRound().get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,48 @@
+package game;
+
+import journal.RoundJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalReplayTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayMatchesTheRecordedGames() throws IOException {
+        RoundJournal journal = new RoundJournal(directory, 4096, 10);
+        GameEngine recorded = new GameEngine(() -> CompletableFuture.completedFuture(0), journal);
+        long guesses = 0;
+        for (int s = 0; s < 8; s++) {
+            long id = recorded.createSession().getId();
+            for (int round = 0; round < 5; round++) {
+                int answer = 1 + (s * 37 + round * 11) % 300;
+                recorded.startRound(id, answer);
+                int low = 1, high = 300;
+                GuessResult result;
+                do { // Busca binária, com alguns palpites errados antes do acerto
+                    int guess = (low + high) / 2;
+                    result = recorded.guess(id, guess);
+                    guesses++;
+                    if (result == GuessResult.LOWER) {
+                        high = guess - 1;
+                    } else if (result == GuessResult.HIGHER) {
+                        low = guess + 1;
+                    }
+                } while (result != GuessResult.CORRECT);
+            }
+        }
+        journal.close();
+
+        JournalReplay.Report report = JournalReplay.load(directory)
+                .run(new GameEngine(() -> CompletableFuture.completedFuture(0)), 2, 1);
+        assertEquals(guesses, report.getGuesses());
+        assertEquals(0, report.getMismatches());
+    }
+}
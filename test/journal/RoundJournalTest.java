@@ -0,0 +1,159 @@
+package journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoundJournalTest {
+    private static final int RECORDS_PER_SEGMENT = 4;
+    private static final int SEGMENT_SIZE = RoundJournal.HEADER_SIZE + RoundJournal.RECORD_SIZE * RECORDS_PER_SEGMENT;
+
+    @TempDir
+    Path directory;
+
+    /**
+     *      Grava uma partida com o número secreto 50 e os palpites, sendo o último o acerto.
+     */
+    private static void play(RoundJournal journal, long session, int round, int... guesses) {
+        journal.roundStarted(session, round, 50);
+        for (int i = 0; i < guesses.length; i++) {
+            journal.guessed(session, round, 50, guesses[i], i == guesses.length - 1 ? 0 : 1);
+        }
+    }
+
+    private static int count(RoundJournalReader reader) throws IOException {
+        int records = 0;
+        try (reader) {
+            while (reader.next()) {
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void readsBackEveryFieldAcrossSegments() throws IOException {
+        RoundJournal journal = new RoundJournal(directory, SEGMENT_SIZE, 10);
+        play(journal, 1, 1, 25, 75, 50);
+        play(journal, 2, 1, 50);
+        play(journal, 1, 2, 10, 50);
+        journal.close();
+
+        assertEquals(3, segmentFiles()); // 9 registros, sem o segmento reserva
+        try (RoundJournalReader reader = new RoundJournalReader(directory)) {
+            int[] types = {1, 2, 2, 2, 1, 2, 1, 2, 2};
+            long[] sessions = {1, 1, 1, 1, 2, 2, 1, 1, 1};
+            int[] rounds = {1, 1, 1, 1, 1, 1, 2, 2, 2};
+            int[] guesses = {0, 25, 75, 50, 0, 50, 0, 10, 50};
+            for (int i = 0; i < types.length; i++) {
+                assertTrue(reader.next(), "Registro " + i);
+                assertEquals(types[i], reader.getType());
+                assertEquals(sessions[i], reader.getSession());
+                assertEquals(rounds[i], reader.getRound());
+                assertEquals(50, reader.getSecret());
+                if (types[i] == RoundJournal.GUESS) {
+                    assertEquals(guesses[i], reader.getGuess());
+                    assertEquals(guesses[i] == 50 ? 0 : 1, reader.getResult());
+                }
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void reopenContinuesAfterTheLastRecord() throws IOException {
+        RoundJournal first = new RoundJournal(directory, SEGMENT_SIZE, 10);
+        play(first, 1, 1, 25, 50);
+        play(first, 2, 1, 50);
+        first.close();
+
+        RoundJournal second = new RoundJournal(directory, SEGMENT_SIZE, 10);
+        play(second, 1, 1, 50);
+        assertEquals(5, count(second.history())); // Sem os registros desta instância
+        second.close();
+
+        assertEquals(7, count(new RoundJournalReader(directory)));
+    }
+
+    @Test
+    void writesAfterCloseAreIgnored() throws IOException {
+        RoundJournal journal = new RoundJournal(directory, SEGMENT_SIZE, 10);
+        play(journal, 1, 1, 50);
+        journal.close();
+        play(journal, 1, 2, 50);
+        journal.close();
+
+        assertEquals(2, count(new RoundJournalReader(directory)));
+    }
+
+    @Test
+    void concurrentWritersLoseNoRecords() throws Exception {
+        RoundJournal journal = new RoundJournal(directory, SEGMENT_SIZE, 1);
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            long session = t + 1;
+            writers[t] = new Thread(() -> {
+                for (int round = 1; round <= 500; round++) {
+                    play(journal, session, round, 50);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        journal.close();
+
+        int[] lastRound = new int[writers.length + 1];
+        try (RoundJournalReader reader = new RoundJournalReader(directory)) {
+            int records = 0;
+            while (reader.next()) {
+                int session = (int) reader.getSession();
+                if (reader.getType() == RoundJournal.ROUND_START) {
+                    assertEquals(lastRound[session] + 1, reader.getRound()); // Em ordem, sem buracos
+                    lastRound[session] = reader.getRound();
+                }
+                records++;
+            }
+            assertEquals(writers.length * 500 * 2, records);
+        }
+        assertEquals(writers.length * 500 * 2 / RECORDS_PER_SEGMENT, segmentFiles());
+    }
+
+    @Test
+    void failedSpareDropsRecordsUntilItCanBeCreated() throws Exception {
+        RoundJournal journal = new RoundJournal(directory, SEGMENT_SIZE, 10);
+        Path blocked = directory.resolve("rounds-0000000002.log");
+        Files.createDirectory(blocked); // O terceiro segmento não pode ser criado
+        play(journal, 1, 1, 10, 20, 30, 40, 50); // 6 registros, o segundo segmento vira o atual
+        play(journal, 1, 2, 50); // Completa o segundo segmento
+        play(journal, 1, 3, 10, 50); // Descartados, sem exceção para quem escreve
+        assertFalse(Files.isRegularFile(blocked));
+
+        Files.delete(blocked);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Files.isRegularFile(blocked) && System.nanoTime() < deadline) { // Criado de novo pelo flush
+            Thread.sleep(10);
+        }
+        play(journal, 1, 4, 50);
+        journal.close();
+
+        assertEquals(10, count(new RoundJournalReader(directory)));
+        assertEquals(3, segmentFiles());
+    }
+}
@@ -0,0 +1,79 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    private static final long MAX_VALUE = (1L << 40) - 1; // Mesmo limite do histograma
+
+    @Test
+    void bucketsAreExactBelow128AndThenHalveTheirPrecision() {
+        assertEquals(127, LatencyHistogram.bucketIndex(127));
+        assertEquals(127, LatencyHistogram.highestValueInBucket(127));
+        assertEquals(128, LatencyHistogram.bucketIndex(128));
+        assertEquals(128, LatencyHistogram.bucketIndex(129)); // Faixas de 2 entre 128 e 255
+        assertEquals(129, LatencyHistogram.highestValueInBucket(128));
+        assertEquals(191, LatencyHistogram.bucketIndex(255));
+        assertEquals(255, LatencyHistogram.highestValueInBucket(191));
+        assertEquals(192, LatencyHistogram.bucketIndex(256)); // Faixas de 4 entre 256 e 511
+        assertEquals(192, LatencyHistogram.bucketIndex(259));
+        assertEquals(259, LatencyHistogram.highestValueInBucket(192));
+        assertEquals(193, LatencyHistogram.bucketIndex(260));
+    }
+
+    @Test
+    void bucketsCoverEveryValueUpToTheMaximum() {
+        int last = LatencyHistogram.bucketIndex(MAX_VALUE);
+        assertEquals(MAX_VALUE, LatencyHistogram.highestValueInBucket(last));
+        long lowest = 0;
+        for (int i = 0; i <= last; i++) { // Faixas contíguas, com erro relativo de no máximo 1/64
+            long highest = LatencyHistogram.highestValueInBucket(i);
+            assertEquals(i, LatencyHistogram.bucketIndex(lowest), "Início da faixa " + i);
+            assertEquals(i, LatencyHistogram.bucketIndex(highest), "Fim da faixa " + i);
+            assertTrue(highest - lowest <= lowest / 64, "Largura da faixa " + i);
+            lowest = highest + 1;
+        }
+    }
+
+    @Test
+    void percentilesReportTheTopOfTheirBucketUpToTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram("test", "us");
+        histogram.record(127);
+        histogram.record(128);
+        histogram.record(255);
+        histogram.record(256);
+        assertEquals(4, histogram.getCount());
+        assertEquals(191.5, histogram.getMean());
+        assertEquals(256, histogram.getMax());
+        assertEquals(129, histogram.getP50()); // Topo da faixa 128 - 129
+        assertEquals(256, histogram.getP99()); // Faixa 256 - 259, limitada ao máximo
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram("test", "us");
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        assertEquals(2, histogram.getCount());
+        assertEquals(MAX_VALUE, histogram.getMax());
+        assertEquals(0, histogram.getP50());
+        assertEquals(MAX_VALUE, histogram.getP99());
+
+        histogram.reset();
+        long value = 1_000_000_007L;
+        histogram.record(value);
+        histogram.record(2 * value);
+        assertTrue(histogram.getP50() >= value && histogram.getP50() <= value + value / 64);
+        assertEquals(2 * value, histogram.getP999()); // Limitado ao máximo gravado
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram("test", "us");
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getP99());
+    }
+}
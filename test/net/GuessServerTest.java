@@ -0,0 +1,126 @@
+package net;
+
+import game.GameEngine;
+import game.GuessResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuessServerTest {
+    private static final int ANSWER = 150;
+
+    private GuessServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        GameEngine engine = new GameEngine(() -> CompletableFuture.completedFuture(ANSWER));
+        server = new GuessServer(engine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        server.close();
+    }
+
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    private static void send(SocketChannel channel, String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     *      Lê exatamente a quantidade de respostas pedida, sem consumir bytes além delas.
+     */
+    private static String receive(SocketChannel channel, int lines) throws IOException {
+        StringBuilder text = new StringBuilder();
+        ByteBuffer one = ByteBuffer.allocate(1);
+        while (lines > 0) {
+            one.clear();
+            if (channel.read(one) < 0) {
+                throw new EOFException("Servidor fechou a conexão");
+            }
+            char c = (char) one.get(0);
+            text.append(c);
+            if (c == '\n') {
+                lines--;
+            }
+        }
+        return text.toString();
+    }
+
+    @Test
+    void playsARoundThroughTheRemoteClient() throws Exception {
+        RemoteGameClient client = new RemoteGameClient("127.0.0.1", server.getPort());
+        try {
+            client.newRound().get(5, TimeUnit.SECONDS);
+            assertEquals(GuessResult.HIGHER, client.guess(100).get(5, TimeUnit.SECONDS));
+            assertEquals(GuessResult.LOWER, client.guess(200).get(5, TimeUnit.SECONDS));
+            assertEquals(GuessResult.CORRECT, client.guess(ANSWER).get(5, TimeUnit.SECONDS));
+            assertEquals(1, server.getConnectionCount());
+
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> client.guess(ANSWER).get(5, TimeUnit.SECONDS));
+            assertTrue(error.getCause() instanceof IllegalStateException); // Partida já terminou
+        } finally {
+            client.close();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getConnectionCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getConnectionCount());
+    }
+
+    @Test
+    void requestSplitAcrossReadsIsReassembled() throws IOException {
+        try (SocketChannel channel = connect()) {
+            send(channel, "N\nG1");
+            assertEquals("S\n", receive(channel, 1)); // O servidor já leu a primeira metade do palpite
+            send(channel, "50\r\n");
+            assertEquals("C\n", receive(channel, 1));
+        }
+    }
+
+    @Test
+    void pipelinedRequestsAreAnsweredInOrder() throws IOException {
+        StringBuilder requests = new StringBuilder("N\n");
+        StringBuilder expected = new StringBuilder("S\n");
+        for (int i = 0; i < 200; i++) {
+            int guess = 1 + i % 299;
+            requests.append('G').append(guess).append('\n');
+            expected.append(guess == ANSWER ? "C\n" : guess > ANSWER ? "L\n" : "H\n");
+            if (guess == ANSWER) {
+                requests.append("N\n");
+                expected.append("S\n");
+            }
+        }
+        requests.append("G\nZ1\nG12345678901234567\n\n"); // Mensagens inválidas não derrubam a conexão
+        expected.append("?\n?\n?\n");
+        try (SocketChannel channel = connect()) {
+            send(channel, requests.toString());
+            int lines = (int) expected.chars().filter(c -> c == '\n').count();
+            assertEquals(expected.toString(), receive(channel, lines));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package stats;
+
+import journal.RoundJournal;
+import journal.RoundJournalReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameStatsTest {
+    private static final int OPTIMAL = 9; // Intervalo 1 - 300
+
+    @TempDir
+    Path directory;
+
+    private static long[] sessionIds(GameStats.Entry[] leaderboard) {
+        long[] ids = new long[leaderboard.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = leaderboard[i].getSessionId();
+        }
+        return ids;
+    }
+
+    @Test
+    void pointsRewardFewerGuesses() {
+        GameStats stats = new GameStats(1, 300, 10);
+        assertEquals(OPTIMAL, stats.getOptimalGuesses());
+        stats.roundWon(1, 1, 100);
+        stats.roundWon(2, OPTIMAL, 100);
+        stats.roundWon(3, 30, 100); // Pior que o ótimo ainda vale um ponto
+        GameStats.Entry[] leaderboard = stats.snapshot(-1).getLeaderboard();
+        assertEquals(OPTIMAL, leaderboard[0].getPoints());
+        assertEquals(1, leaderboard[1].getPoints());
+        assertEquals(1, leaderboard[2].getPoints());
+    }
+
+    @Test
+    void leaderboardIsOrderedByPointsThenArrival() {
+        GameStats stats = new GameStats(1, 300, 10);
+        stats.roundWon(1, 8, 100); // 2 pontos
+        stats.roundWon(2, 5, 100); // 5 pontos
+        stats.roundWon(3, 8, 100); // 2 pontos, chegou depois do 1
+        stats.roundWon(4, 9, 100); // 1 ponto
+        assertArrayEquals(new long[]{2, 1, 3, 4}, sessionIds(stats.snapshot(-1).getLeaderboard()));
+
+        stats.roundWon(4, 1, 100); // 10 pontos no total, passa todos
+        assertArrayEquals(new long[]{4, 2, 1, 3}, sessionIds(stats.snapshot(-1).getLeaderboard()));
+    }
+
+    @Test
+    void topKMatchesAFullSort() {
+        int players = 500, topK = 10;
+        GameStats stats = new GameStats(1, 300, topK);
+        long[] points = new long[players + 1];
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int player = 1 + random.nextInt(players);
+            int guessCount = 1 + random.nextInt(15);
+            stats.roundWon(player, guessCount, 10);
+            points[player] += Math.max(1, OPTIMAL + 1 - guessCount);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int player = 1; player <= players; player++) {
+            expected.add(player);
+        }
+        expected.sort(Comparator.comparingLong((Integer player) -> -points[player]));
+        GameStats.Entry[] leaderboard = stats.snapshot(-1).getLeaderboard();
+        assertEquals(topK, leaderboard.length);
+        for (int i = 0; i < topK; i++) {
+            assertEquals(points[expected.get(i)], leaderboard[i].getPoints(), "Posição " + i);
+            assertTrue(leaderboard[i].isLive());
+        }
+        for (int i = 1; i < topK; i++) {
+            assertTrue(leaderboard[i - 1].getPoints() >= leaderboard[i].getPoints());
+        }
+    }
+
+    @Test
+    void streakEndsOnAbandonedOrSlowRound() {
+        GameStats stats = new GameStats(1, 300, 10);
+        stats.roundWon(7, 5, 100);
+        stats.roundWon(7, 6, 100);
+        assertEquals(2, stats.snapshot(7).getPlayer().getStreak());
+        stats.roundAbandoned(7);
+        assertEquals(0, stats.snapshot(7).getPlayer().getStreak());
+        stats.roundWon(7, 4, 100);
+        stats.roundWon(7, OPTIMAL + 1, 100);
+        GameStats.Snapshot snapshot = stats.snapshot(7);
+        assertEquals(0, snapshot.getPlayer().getStreak());
+        assertEquals(2, snapshot.getPlayer().getBestStreak());
+        assertEquals(4, snapshot.getPlayer().getBest());
+        assertEquals(4, snapshot.getRounds());
+        assertEquals(1, snapshot.getAbandoned());
+        assertNull(stats.snapshot(8).getPlayer());
+    }
+
+    @Test
+    void rebuildReadsWinsAndAbandonsFromTheJournal() throws IOException {
+        RoundJournal journal = new RoundJournal(directory, 4096, 10);
+        journal.roundStarted(1, 1, 50);
+        journal.guessed(1, 1, 50, 25, 2);
+        journal.guessed(1, 1, 50, 50, 0); // Vitória em 2 palpites
+        journal.roundStarted(1, 2, 80);
+        journal.guessed(1, 2, 80, 50, 2);
+        journal.roundStarted(1, 3, 10); // Partida 2 abandonada
+        journal.guessed(1, 3, 10, 10, 0);
+        journal.roundStarted(1, 1, 30); // Nova execução: o id 1 recomeça
+        journal.guessed(1, 1, 30, 30, 0);
+        journal.close();
+
+        GameStats stats = new GameStats(1, 300, 10);
+        assertEquals(3, stats.rebuild(new RoundJournalReader(directory)));
+        GameStats.Snapshot snapshot = stats.snapshot(-1);
+        assertEquals(3, snapshot.getRounds());
+        assertEquals(1, snapshot.getAbandoned());
+        GameStats.Entry[] leaderboard = snapshot.getLeaderboard();
+        assertEquals(2, leaderboard.length); // Duas execuções, dois jogadores
+        assertFalse(leaderboard[0].isLive());
+        assertEquals(OPTIMAL - 1 + OPTIMAL, leaderboard[0].getPoints()); // Partidas com 2 e 1 palpites
+        assertEquals(OPTIMAL, leaderboard[1].getPoints());
+    }
+}
@@ -0,0 +1,100 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+import utils.GameConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GuessInputTest {
+    private static GuessInput.Status check(String text, int min, int max) {
+        int maxDigits = Math.max(GameConfig.digitCount(min), GameConfig.digitCount(max));
+        return GuessInput.status(GuessInput.parse(text, min, max, maxDigits));
+    }
+
+    private static void assertValid(int expected, String text, int min, int max) {
+        int maxDigits = Math.max(GameConfig.digitCount(min), GameConfig.digitCount(max));
+        long parsed = GuessInput.parse(text, min, max, maxDigits);
+        assertEquals(GuessInput.Status.VALID, GuessInput.status(parsed), text);
+        assertEquals(expected, GuessInput.value(parsed), text);
+    }
+
+    @Test
+    void emptyText() {
+        assertEquals(GuessInput.Status.EMPTY, check("", 1, 300));
+    }
+
+    @Test
+    void validNumbersCarryTheirValue() {
+        assertValid(1, "1", 1, 300);
+        assertValid(300, "300", 1, 300);
+        assertValid(150, "150", 100, 300);
+        assertValid(-50, "-50", -50, 50);
+        assertValid(0, "0", -50, 50);
+    }
+
+    @Test
+    void prefixesOfValidNumbersArePartial() {
+        assertEquals(GuessInput.Status.PARTIAL, check("1", 100, 300));
+        assertEquals(GuessInput.Status.PARTIAL, check("3", 100, 300)); // Só 300 começa com 3
+        assertEquals(GuessInput.Status.PARTIAL, check("30", 100, 300));
+        assertEquals(GuessInput.Status.INVALID, check("4", 100, 300));
+        assertEquals(GuessInput.Status.INVALID, check("31", 100, 300));
+    }
+
+    @Test
+    void zeroAndLeadingZeros() {
+        assertEquals(GuessInput.Status.PARTIAL, check("0", 1, 300)); // Ainda pode virar "01"
+        assertValid(1, "01", 1, 300); // Aceito, como no Integer.parseInt que o Controller usava
+        assertValid(1, "001", 1, 300);
+        assertEquals(GuessInput.Status.INVALID, check("000", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("0", 100, 300)); // "0xx" no máximo chega a 99
+    }
+
+    @Test
+    void loneMinusSignDependsOnTheRange() {
+        assertEquals(GuessInput.Status.PARTIAL, check("-", -50, 50));
+        assertEquals(GuessInput.Status.PARTIAL, check("-", -50, -10));
+        assertEquals(GuessInput.Status.INVALID, check("-", 0, 300));
+        assertEquals(GuessInput.Status.INVALID, check("-", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("-5", 1, 300));
+    }
+
+    @Test
+    void negativeRangesInThePrefixLoop() {
+        assertEquals(GuessInput.Status.PARTIAL, check("-1", -50, -10)); // -10 a -19
+        assertEquals(GuessInput.Status.PARTIAL, check("-5", -50, -10)); // Só -50
+        assertEquals(GuessInput.Status.INVALID, check("-6", -50, -10));
+        assertEquals(GuessInput.Status.INVALID, check("-0", -50, -10));
+        assertEquals(GuessInput.Status.INVALID, check("-51", -50, -10));
+        assertEquals(GuessInput.Status.INVALID, check("5", -50, -10));
+        assertValid(-5, "-5", -50, 300);
+        assertEquals(GuessInput.Status.PARTIAL, check("-1", -150, -100)); // Só com dois dígitos a mais
+    }
+
+    @Test
+    void overLengthAndOutOfRangeAreInvalid() {
+        assertEquals(GuessInput.Status.INVALID, check("1000", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("0150", 1, 300)); // Zeros também contam no tamanho
+        assertEquals(GuessInput.Status.INVALID, check("99999999999", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("301", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("51", -50, 50));
+        assertEquals(GuessInput.Status.INVALID, check("-51", -50, 50));
+    }
+
+    @Test
+    void onlyDigitsAndALeadingMinusAreAccepted() {
+        assertEquals(GuessInput.Status.INVALID, check("12a", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("+5", 1, 300));
+        assertEquals(GuessInput.Status.INVALID, check("5-", -50, 50));
+        assertEquals(GuessInput.Status.INVALID, check("--5", -50, 50));
+        assertEquals(GuessInput.Status.INVALID, check(" 5", 1, 300));
+    }
+
+    @Test
+    void defaultParseUsesTheGameConfigRange() {
+        int min = GameConfig.getMin(), max = GameConfig.getMax();
+        for (String text : new String[]{"", "-", "0", String.valueOf(min), String.valueOf(max), max + "0"}) {
+            assertEquals(GuessInput.parse(text, min, max, GameConfig.getMaxDigits()), GuessInput.parse(text), text);
+        }
+    }
+}
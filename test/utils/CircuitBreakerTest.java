@@ -0,0 +1,79 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 1, TimeUnit.HOURS);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 1, TimeUnit.HOURS);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void allowsASingleTestCallAfterTheOpenTime() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, TimeUnit.NANOSECONDS);
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest()); // A chamada de teste ainda não terminou
+    }
+
+    @Test
+    void testCallSuccessCloses() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, TimeUnit.NANOSECONDS);
+        breaker.onFailure();
+        assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void testCallFailureOpensAgain() {
+        CircuitBreaker breaker = new CircuitBreaker(5, 0, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure();
+        }
+        assertTrue(breaker.allowRequest());
+        breaker.onFailure(); // Uma falha basta no HALF_OPEN
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void skippedTestCallReopensWithoutWaiting() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, TimeUnit.NANOSECONDS);
+        breaker.onFailure();
+        assertTrue(breaker.allowRequest());
+        breaker.onSkipped();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest()); // A próxima chamada é o novo teste
+
+        breaker.onSuccess();
+        breaker.onSkipped(); // Fora do HALF_OPEN não muda nada
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpNumberTest {
+    private static final int LOW = HttpNumber.getLowWatermark(), HIGH = HttpNumber.getHighWatermark();
+
+    private StubNumberServer server;
+    private HttpNumber numbers;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new StubNumberServer(0, 0, 0, 0, 503);
+        numbers = new HttpNumber(server.getUri());
+    }
+
+    @AfterEach
+    void stop() {
+        numbers.close();
+        server.close();
+    }
+
+    /**
+     *      Espera o pool chegar à marca superior, verificando que ele nunca passa dela, e que continua nela depois.
+     */
+    private void awaitFullPool() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int size;
+        while ((size = numbers.getPoolSize()) < HIGH && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(HIGH, size);
+        Thread.sleep(50); // Um request a mais, se houvesse, já teria chegado
+        assertEquals(HIGH, numbers.getPoolSize());
+    }
+
+    private static int number(CompletableFuture<Integer> future) throws Exception {
+        int number = future.get(5, TimeUnit.SECONDS);
+        assertTrue(GameConfig.isInRange(number), "Número " + number);
+        return number;
+    }
+
+    @Test
+    void warmUpFillsThePoolUpToTheHighWatermark() throws Exception {
+        assertTrue(LOW < HIGH);
+        numbers.warmUp();
+        awaitFullPool();
+    }
+
+    @Test
+    void drainingToTheLowWatermarkRefillsThePool() throws Exception {
+        numbers.warmUp();
+        awaitFullPool();
+        for (int i = HIGH; i > LOW + 1; i--) { // Acima da marca inferior nada é buscado
+            CompletableFuture<Integer> pooled = numbers.next();
+            assertTrue(pooled.isDone());
+            number(pooled);
+        }
+        Thread.sleep(50);
+        assertEquals(LOW + 1, numbers.getPoolSize());
+
+        number(numbers.next()); // Chega à marca inferior
+        awaitFullPool();
+    }
+
+    @Test
+    void emptyPoolFetchesDirectlyAndRefills() throws Exception {
+        numbers.warmUp();
+        awaitFullPool();
+        for (int i = 0; i < HIGH * 3; i++) { // Mais rápido que o reabastecimento, parte vem direto do servidor
+            number(numbers.next());
+        }
+        awaitFullPool();
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonValueParserTest {
+    private static int parse(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return JsonValueParser.parse(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void readsTheValueField() {
+        assertEquals(42, parse("{\"value\":42}"));
+        assertEquals(42, parse("{ \"value\" : 42 }"));
+        assertEquals(42, parse("{\"min\":1,\"value\":42,\"max\":300}"));
+        assertEquals(0, parse("{\"value\":0}"));
+    }
+
+    @Test
+    void ignoresValueUsedAsAString() {
+        assertEquals(7, parse("{\"note\":\"value\",\"value\":7}"));
+        assertEquals(-1, parse("{\"note\":\"value\"}"));
+        assertEquals(-1, parse("{\"values\":7,\"valu\":8}"));
+    }
+
+    @Test
+    void escapedKeyIsNotTheKey() {
+        assertEquals(-1, parse("{\"val\\u0075e\":5}"));
+        assertEquals(3, parse("{\"x\":\"a\\\"value\\\"\",\"value\":3}"));
+        assertEquals(9, parse("{\"x\":\"\\\\\",\"value\":9}")); // Barra invertida escapada fecha a String
+    }
+
+    @Test
+    void rejectsNumbersThatAreNotValidInts() {
+        assertEquals(-1, parse("{\"value\":1.5}"));
+        assertEquals(-1, parse("{\"value\":1e3}"));
+        assertEquals(-1, parse("{\"value\":99999999999}"));
+        assertEquals(-1, parse("{\"value\":\"42\"}"));
+        assertEquals(-1, parse("{\"value\":-4}"));
+    }
+
+    @Test
+    void rejectsTruncatedBodies() {
+        assertEquals(-1, parse("{\"value\":18"));
+        assertEquals(-1, parse("{\"value\":"));
+        assertEquals(-1, parse("{\"val"));
+        assertEquals(-1, parse(""));
+    }
+
+    @Test
+    void sameResultForEverySplitPoint() {
+        byte[] json = "{ \"min\" : 1, \"note\" : \"value\", \"value\" : 187, \"max\" : 300 }"
+                .getBytes(StandardCharsets.UTF_8);
+        JsonValueParser parser = new JsonValueParser();
+        for (int split = 0; split <= json.length; split++) {
+            parser.reset();
+            parser.feed(json, 0, split);
+            parser.feed(json, split, json.length - split);
+            assertEquals(187, parser.finish(), "Divisão em " + split);
+        }
+    }
+
+    @Test
+    void readsOneByteAtATime() {
+        byte[] json = "{\"value\":1234}".getBytes(StandardCharsets.UTF_8);
+        JsonValueParser parser = new JsonValueParser();
+        for (byte b : json) {
+            parser.feed(ByteBuffer.wrap(new byte[]{b}));
+        }
+        assertEquals(1234, parser.finish());
+    }
+
+    @Test
+    void feedConsumesTheWholeBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("{\"value\":5,\"max\":300}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(5, JsonValueParser.parse(buffer));
+        assertEquals(buffer.limit(), buffer.position());
+    }
+}
@@ -0,0 +1,102 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LedGlyphsTest {
+    // Segmentos na ordem do LedDisplay: meio, topo e depois em sentido horário
+    private static final int MIDDLE = 1, TOP = 1 << 1, UPPER_RIGHT = 1 << 2, LOWER_RIGHT = 1 << 3, BOTTOM = 1 << 4,
+            LOWER_LEFT = 1 << 5, UPPER_LEFT = 1 << 6;
+
+    private static byte[] encode(int number) {
+        byte[] masks = new byte[12];
+        int count = LedGlyphs.encode(number, masks);
+        return Arrays.copyOf(masks, count);
+    }
+
+    private static byte[] encode(String text) {
+        byte[] masks = new byte[text.length()];
+        assertEquals(text.length(), LedGlyphs.encode(text, masks));
+        return masks;
+    }
+
+    @Test
+    void digitsLightTheExpectedSegments() {
+        int[] digits = {
+                TOP | UPPER_RIGHT | LOWER_RIGHT | BOTTOM | LOWER_LEFT | UPPER_LEFT, // 0
+                UPPER_RIGHT | LOWER_RIGHT, // 1
+                TOP | UPPER_RIGHT | MIDDLE | LOWER_LEFT | BOTTOM, // 2
+                TOP | UPPER_RIGHT | MIDDLE | LOWER_RIGHT | BOTTOM, // 3
+                UPPER_LEFT | MIDDLE | UPPER_RIGHT | LOWER_RIGHT, // 4
+                TOP | UPPER_LEFT | MIDDLE | LOWER_RIGHT | BOTTOM, // 5
+                TOP | UPPER_LEFT | MIDDLE | LOWER_LEFT | LOWER_RIGHT | BOTTOM, // 6
+                TOP | UPPER_RIGHT | LOWER_RIGHT, // 7
+                TOP | UPPER_RIGHT | LOWER_RIGHT | BOTTOM | LOWER_LEFT | UPPER_LEFT | MIDDLE, // 8
+                TOP | UPPER_LEFT | UPPER_RIGHT | MIDDLE | LOWER_RIGHT, // 9
+                TOP | UPPER_LEFT | UPPER_RIGHT | MIDDLE | LOWER_LEFT | LOWER_RIGHT, // A
+                UPPER_LEFT | LOWER_LEFT | MIDDLE | LOWER_RIGHT | BOTTOM, // b
+                TOP | UPPER_LEFT | LOWER_LEFT | BOTTOM, // C
+                UPPER_RIGHT | LOWER_RIGHT | MIDDLE | LOWER_LEFT | BOTTOM, // d
+                TOP | UPPER_LEFT | MIDDLE | LOWER_LEFT | BOTTOM, // E
+                TOP | UPPER_LEFT | MIDDLE | LOWER_LEFT // F
+        };
+        for (int i = 0; i < digits.length; i++) {
+            char c = Character.forDigit(i, 16);
+            assertEquals(digits[i], LedGlyphs.glyph(c), "Dígito " + c);
+            assertEquals(digits[i], LedGlyphs.glyph(Character.toUpperCase(c)), "Dígito " + c);
+        }
+    }
+
+    @Test
+    void lettersAndSignsLightTheExpectedSegments() {
+        assertEquals(0, LedGlyphs.glyph(' '));
+        assertEquals(MIDDLE, LedGlyphs.glyph('-'));
+        assertEquals(UPPER_LEFT | LOWER_LEFT | MIDDLE | UPPER_RIGHT | LOWER_RIGHT, LedGlyphs.glyph('H'));
+        assertEquals(UPPER_LEFT | LOWER_LEFT | BOTTOM, LedGlyphs.glyph('L'));
+        assertEquals(LOWER_LEFT | MIDDLE | LOWER_RIGHT, LedGlyphs.glyph('n'));
+        assertEquals(LOWER_LEFT | MIDDLE | LOWER_RIGHT | BOTTOM, LedGlyphs.glyph('o'));
+        assertEquals(TOP | UPPER_LEFT | UPPER_RIGHT | MIDDLE | LOWER_LEFT, LedGlyphs.glyph('P'));
+        assertEquals(LOWER_LEFT | MIDDLE, LedGlyphs.glyph('r'));
+        assertEquals(UPPER_LEFT | LOWER_LEFT | MIDDLE | BOTTOM, LedGlyphs.glyph('t'));
+        assertEquals(UPPER_LEFT | LOWER_LEFT | BOTTOM | LOWER_RIGHT | UPPER_RIGHT, LedGlyphs.glyph('U'));
+    }
+
+    @Test
+    void unknownCharactersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LedGlyphs.glyph('x'));
+        assertThrows(IllegalArgumentException.class, () -> LedGlyphs.glyph('é'));
+        assertThrows(IllegalArgumentException.class, () -> encode("Ex"));
+    }
+
+    @Test
+    void numbersAreEncodedLikeTheirText() {
+        int[] numbers = {0, 7, 10, 300, -1, -5, -300, 1_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int number : numbers) {
+            assertArrayEquals(encode(Integer.toString(number)), encode(number), "Número " + number);
+        }
+        assertArrayEquals(new byte[]{LedGlyphs.glyph('-'), LedGlyphs.glyph('5')}, encode(-5));
+        assertArrayEquals(new byte[]{LedGlyphs.glyph('0')}, encode(0));
+    }
+
+    @Test
+    void rangeLimitsUseAllConfiguredDigits() {
+        int min = GameConfig.getMin(), max = GameConfig.getMax();
+        byte[] masks = new byte[GameConfig.getMaxDigits()];
+        int longest = Math.max(LedGlyphs.encode(min, masks), LedGlyphs.encode(max, masks));
+        assertEquals(GameConfig.getMaxDigits(), longest);
+        assertArrayEquals(encode(Integer.toString(max)), encode(max));
+    }
+
+    @Test
+    void onlyTheNumberDigitsAreWritten() {
+        byte[] masks = new byte[4];
+        Arrays.fill(masks, (byte) -1);
+        assertEquals(2, LedGlyphs.encode(42, masks));
+        assertArrayEquals(new byte[]{LedGlyphs.glyph('4'), LedGlyphs.glyph('2'), -1, -1}, masks);
+    }
+}
@@ -0,0 +1,158 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientNumberSourceTest {
+    private static final int FALLBACK = 7;
+
+    /**
+     *      Fonte protegida cujas respostas são decididas pelo teste: cada next() devolve o próximo número do pool, ou um
+     *  request pendente caso o pool esteja vazio.
+     */
+    private static final class ScriptedSource implements NumberSource {
+        final Deque<Integer> pool = new ArrayDeque<>();
+        final Deque<CompletableFuture<Integer>> pending = new ArrayDeque<>();
+        int calls;
+
+        @Override
+        public synchronized CompletableFuture<Integer> next() {
+            calls++;
+            if (!pool.isEmpty()) {
+                return CompletableFuture.completedFuture(pool.poll());
+            }
+            CompletableFuture<Integer> request = new CompletableFuture<>();
+            pending.add(request);
+            return request;
+        }
+
+        synchronized void fail(int httpCode) {
+            pending.poll().completeExceptionally(new HttpNumberException(httpCode, "Erro " + httpCode));
+        }
+
+        synchronized void answer(int number) {
+            pending.poll().complete(number);
+        }
+    }
+
+    private static ResilientNumberSource protect(ScriptedSource primary, CircuitBreaker breaker) {
+        return new ResilientNumberSource(primary, () -> CompletableFuture.completedFuture(FALLBACK), breaker, 0,
+                TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private static int get(CompletableFuture<Integer> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failureUsesTheFallbackAndRecordsTheCause() throws Exception {
+        ScriptedSource primary = new ScriptedSource();
+        ResilientNumberSource source = protect(primary, new CircuitBreaker(5, 1, TimeUnit.HOURS));
+        CompletableFuture<Integer> number = source.next();
+        primary.fail(503);
+        assertEquals(FALLBACK, get(number));
+        assertEquals(503, NumberSource.degradedCause(number).getHttpCode());
+
+        number = source.next();
+        primary.answer(42);
+        assertEquals(42, get(number));
+        assertNull(NumberSource.degradedCause(number));
+    }
+
+    @Test
+    void concurrentRequestsKeepTheirOwnCause() throws Exception {
+        ScriptedSource primary = new ScriptedSource();
+        ResilientNumberSource source = protect(primary, new CircuitBreaker(5, 1, TimeUnit.HOURS));
+        CompletableFuture<Integer> first = source.next();
+        CompletableFuture<Integer> second = source.next();
+        primary.fail(503); // Só o primeiro usa a fonte reserva
+        primary.answer(42);
+        CompletableFuture<Integer> third = source.next();
+        primary.fail(502);
+
+        assertEquals(FALLBACK, get(first));
+        assertEquals(42, get(second));
+        assertEquals(FALLBACK, get(third));
+        assertEquals(503, NumberSource.degradedCause(first).getHttpCode());
+        assertNull(NumberSource.degradedCause(second));
+        assertEquals(502, NumberSource.degradedCause(third).getHttpCode());
+    }
+
+    @Test
+    void pooledNumbersDoNotCloseTheBreaker() throws Exception {
+        ScriptedSource primary = new ScriptedSource();
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, TimeUnit.HOURS);
+        ResilientNumberSource source = protect(primary, breaker);
+
+        CompletableFuture<Integer> number = source.next();
+        primary.fail(500);
+        assertEquals(FALLBACK, get(number));
+
+        primary.pool.add(3); // Número do pool entre duas buscas que falham
+        assertEquals(3, get(source.next()));
+
+        number = source.next();
+        primary.fail(500);
+        assertEquals(FALLBACK, get(number));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void pooledTestCallDoesNotKeepTheBreakerHalfOpen() throws Exception {
+        ScriptedSource primary = new ScriptedSource();
+        CircuitBreaker breaker = new CircuitBreaker(1, 0, TimeUnit.NANOSECONDS);
+        ResilientNumberSource source = protect(primary, breaker);
+        CompletableFuture<Integer> number = source.next();
+        primary.fail(500);
+        assertEquals(FALLBACK, get(number));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        primary.pool.add(3); // A chamada de teste é respondida pelo pool
+        primary.pool.add(4);
+        assertEquals(3, get(source.next()));
+        assertEquals(4, get(source.next()));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        number = source.next(); // Nova chamada de teste, agora ao servidor
+        primary.answer(42);
+        assertEquals(42, get(number));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void openBreakerSkipsThePrimary() throws Exception {
+        ScriptedSource primary = new ScriptedSource();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, TimeUnit.HOURS);
+        ResilientNumberSource source = protect(primary, breaker);
+        CompletableFuture<Integer> number = source.next();
+        primary.fail(500);
+        get(number);
+        int calls = primary.calls;
+
+        number = source.next();
+        assertEquals(FALLBACK, get(number));
+        assertEquals(calls, primary.calls);
+        assertEquals(0, NumberSource.degradedCause(number).getHttpCode());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() throws Exception {
+        ScriptedSource primary = new ScriptedSource();
+        ResilientNumberSource source = new ResilientNumberSource(primary,
+                () -> CompletableFuture.completedFuture(FALLBACK), new CircuitBreaker(5, 1, TimeUnit.HOURS), 3,
+                TimeUnit.SECONDS.toMillis(30));
+        CompletableFuture<Integer> number = source.next();
+        primary.fail(404);
+        assertEquals(FALLBACK, get(number));
+        assertEquals(1, primary.calls);
+        assertTrue(primary.pending.isEmpty());
+    }
+}